@@ -1,15 +1,18 @@
 package kg.manurov.bankmvc.aspects;
 
 import kg.manurov.bankmvc.dto.cards.CardDto;
-import kg.manurov.bankmvc.dto.transactions.TransactionDto;
+import kg.manurov.bankmvc.entities.CardNumber;
 import kg.manurov.bankmvc.util.AuthenticatedUserUtil;
 import kg.manurov.bankmvc.util.EncryptionUtil;
+import kg.manurov.bankmvc.util.RequestOperations;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.atomic.LongAdder;
+
 @Aspect
 @Component
 @RequiredArgsConstructor
@@ -18,68 +21,54 @@ import org.springframework.stereotype.Component;
 public class CardMaskingAspect {
     private final EncryptionUtil encryptionUtil;
     private final AuthenticatedUserUtil userUtil;
+    private final LongAdder revealed = new LongAdder();
+    private final LongAdder masked = new LongAdder();
+    private final LongAdder failed = new LongAdder();
 
     @AfterReturning(
             pointcut = "execution(* kg.manurov.bankmvc.dto.mappers.CardMapper.toDto*(..)) ||"+
-                       "execution(* kg.manurov.bankmvc.dto.mappers.CardBlockRequestMapper.toDto*(..)) ||"+
-                       "execution(* kg.manurov.bankmvc.dto.mappers.TransactionMapper.toDto*(..))",
+                       "execution(* kg.manurov.bankmvc.dto.mappers.CardBlockRequestMapper.toDto*(..))",
             returning = "result")
     public void maskSingleCardDto(Object result) {
         if (result instanceof CardDto cardDto) {
             maskCardDto(cardDto);
-        }else if (result instanceof  TransactionDto transactionDto){
-            maskTransactionDto(transactionDto);
         }
     }
 
     private void maskCardDto(CardDto cardDto) {
+        RequestOperations.countCardMasking();
         try {
-            String currentUsername = userUtil.getCurrentUsername();
-            boolean isAdmin = userUtil.isCurrentUserAdmin();
-            boolean isOwner = userUtil.isCardOwner(cardDto.getOwnerId(), currentUsername);
+            boolean isOwner = userUtil.isCurrentUserOwner(cardDto.getOwnerId());
 
-            log.debug("Маскирование карты ID: {}, пользователь: {}, админ: {}, владелец: {}",
-                    cardDto.getId(), currentUsername, isAdmin, isOwner);
-            String maskedNumber;
-            if (!isAlreadyDecrypted(cardDto.getCardNumber())) {
-                cardDto.setCardNumber(encryptionUtil.decryptCardNumber(cardDto.getCardNumber()));
+            log.debug("Маскирование карты ID: {}, владелец: {}", cardDto.getId(), isOwner);
+            CardNumber storedCardNumber = cardDto.getStoredCardNumber();
+            if (storedCardNumber == null) {
+                return;
             }
             if (isOwner) {
-                maskedNumber = cardDto.getCardNumber();
+                cardDto.setCardNumber(encryptionUtil.revealCardNumber(storedCardNumber));
+                revealed.increment();
             } else {
-                maskedNumber = encryptionUtil.maskCardNumber(cardDto.getCardNumber());
+                cardDto.setCardNumber(storedCardNumber.masked());
+                masked.increment();
             }
 
-            cardDto.setCardNumber(maskedNumber);
-
         } catch (Exception e) {
             log.warn("Ошибка при маскировании номера карты: {}", e.getMessage());
             cardDto.setCardNumber("****");
+            failed.increment();
         }
     }
 
-    private void maskTransactionDto(TransactionDto transactionDto) {
-        try {
-            String currentUsername = userUtil.getCurrentUsername();
-            boolean isAdmin = userUtil.isCurrentUserAdmin();
-            boolean isOwner = userUtil.isCardOwner(transactionDto.getToCardId(), currentUsername);
-
-            log.debug("Маскирование номера карты в транзакции ID: {} , пользователь: {}, админ: {}, владелец: {}",
-                    transactionDto.getId(), currentUsername, isAdmin, isOwner);
-
-            if (isAdmin) {
-                transactionDto.setFromCardNumber(encryptionUtil.maskCardNumber(transactionDto.getFromCardNumber()));
-                transactionDto.setToCardNumber(encryptionUtil.maskCardNumber(transactionDto.getToCardNumber()));
-            }
+    public long getRevealed() {
+        return revealed.sum();
+    }
 
-        } catch (Exception e) {
-            log.warn("Ошибка при маскировании номера карты: {}", e.getMessage());
-            transactionDto.setFromCardNumber("****");
-            transactionDto.setToCardNumber("****");
-        }
+    public long getMasked() {
+        return masked.sum();
     }
 
-    private boolean isAlreadyDecrypted(String cardNumber) {
-        return cardNumber.matches("\\d{13,19}");
+    public long getFailed() {
+        return failed.sum();
     }
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+package kg.manurov.bankmvc.components;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import kg.manurov.bankmvc.dto.users.TokenResponse;
+import kg.manurov.bankmvc.entities.Role;
+import kg.manurov.bankmvc.entities.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Issues and verifies the short-lived access tokens of the REST API. A token is the user's id,
+ * role, phone number, issue and expiry times, signed with HMAC-SHA256 under a key derived from
+ * {@code app.access_token.key}; verifying one needs neither the database nor any shared state, and
+ * yields a detached {@link User} carrying just those fields.
+ * <p>
+ * Tokens cannot be recalled individually: they live {@code app.access_token.ttl_seconds}, and
+ * {@link #revoke(String)} rejects every token issued to a user before the call, so disabling or
+ * deleting a user takes effect at once on this instance.
+ */
+@Slf4j
+@Component
+public class AccessTokenService {
+    public static final String TOKEN_TYPE = "Bearer";
+    private static final String HASH_ALGORITHM = "HmacSHA256";
+    private static final String SIGNING_KEY_PREFIX = "access-token:";
+    private static final String VERSION = "v1";
+    private static final String FIELD_SEPARATOR = "|";
+    private static final int FIELDS = 7;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    @Value("${app.access_token.key:${app.encryption.key}}")
+    private String key;
+
+    @Value("${app.access_token.ttl_seconds:900}")
+    private Long ttlSeconds;
+
+    private SecretKeySpec signingKey;
+    private Cache<String, Long> revokedBefore;
+
+    @PostConstruct
+    void init() {
+        try {
+            this.signingKey = new SecretKeySpec(MessageDigest.getInstance("SHA-256")
+                    .digest((SIGNING_KEY_PREFIX + key).getBytes(StandardCharsets.UTF_8)), HASH_ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Error deriving access token key", e);
+        }
+        this.revokedBefore = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        log.info("Access tokens initialized, ttl: {}s", ttlSeconds);
+    }
+
+    public TokenResponse issue(User user) {
+        long issuedAt = System.currentTimeMillis();
+        long expiresAt = issuedAt + ttlSeconds * 1000;
+        Role role = user.getRole();
+        String payload = String.join(FIELD_SEPARATOR, VERSION,
+                String.valueOf(user.getId()),
+                String.valueOf(role.getId()),
+                role.getName(),
+                String.valueOf(issuedAt),
+                String.valueOf(expiresAt),
+                user.getPhoneNumber());
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        String token = ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(sign(payloadBytes));
+        return new TokenResponse()
+                .setAccessToken(token)
+                .setTokenType(TOKEN_TYPE)
+                .setExpiresIn(ttlSeconds);
+    }
+
+    /**
+     * Returns the token's user if the signature matches and the token has neither expired nor
+     * been revoked; malformed tokens are treated like forged ones.
+     */
+    public Optional<User> verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return Optional.empty();
+        }
+        byte[] payloadBytes;
+        byte[] signature;
+        try {
+            payloadBytes = DECODER.decode(token.substring(0, dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (!MessageDigest.isEqual(sign(payloadBytes), signature)) {
+            return Optional.empty();
+        }
+
+        String[] fields = new String(payloadBytes, StandardCharsets.UTF_8).split("\\" + FIELD_SEPARATOR, FIELDS);
+        if (fields.length != FIELDS || !VERSION.equals(fields[0])) {
+            return Optional.empty();
+        }
+        long issuedAt = Long.parseLong(fields[4]);
+        long expiresAt = Long.parseLong(fields[5]);
+        String phoneNumber = fields[6];
+        if (expiresAt <= System.currentTimeMillis()) {
+            return Optional.empty();
+        }
+        Long revoked = revokedBefore.getIfPresent(phoneNumber);
+        if (revoked != null && issuedAt <= revoked) {
+            return Optional.empty();
+        }
+        return Optional.of(User.builder()
+                .id(Long.valueOf(fields[1]))
+                .role(new Role().setId(Long.valueOf(fields[2])).setName(fields[3]))
+                .phoneNumber(phoneNumber)
+                .enabled(true)
+                .build());
+    }
+
+    /**
+     * Rejects every token issued to the user so far. Kept only as long as such tokens could live.
+     */
+    public void revoke(String phoneNumber) {
+        revokedBefore.put(phoneNumber, System.currentTimeMillis());
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(HASH_ALGORITHM);
+            mac.init(signingKey);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Error signing access token", e);
+        }
+    }
+}
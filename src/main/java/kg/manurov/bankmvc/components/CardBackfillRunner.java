@@ -0,0 +1,83 @@
+package kg.manurov.bankmvc.components;
+
+import kg.manurov.bankmvc.service.CardBackfillService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.UnaryOperator;
+
+/**
+ * Runs the card number backfills once at startup, in the background, on one node of the cluster
+ * only: the node that takes the {@code card-backfill} scheduler lock runs them, the others skip.
+ * The lock is held at most {@code app.backfill.lock_at_most_for_ms}, which must exceed the
+ * backfills' duration; every job only touches rows it has not processed yet, so a run that
+ * restarts after a crash continues where the previous one stopped.
+ */
+@Slf4j
+@Component
+public class CardBackfillRunner implements CommandLineRunner {
+    private static final String LOCK_NAME = "card-backfill";
+
+    @Value("${app.backfill.enabled}")
+    private boolean enabled;
+    @Value("${app.backfill.lock_at_most_for_ms:3600000}")
+    private Long lockAtMostForMs;
+
+    private final CardBackfillService backfillService;
+    private final SchedulerLockManager schedulerLockManager;
+    private final AsyncTaskExecutor taskExecutor;
+
+    public CardBackfillRunner(
+            CardBackfillService backfillService,
+            SchedulerLockManager schedulerLockManager,
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) AsyncTaskExecutor taskExecutor) {
+        this.backfillService = backfillService;
+        this.schedulerLockManager = schedulerLockManager;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            log.info("Card backfill is disabled");
+            return;
+        }
+        taskExecutor.execute(() -> {
+            try {
+                schedulerLockManager.runLocked(LOCK_NAME, Duration.ofMillis(lockAtMostForMs), Duration.ZERO, () -> {
+                    runInChunks("card number hash backfill", backfillService::backfillCardNumberHashes);
+                    runInChunks("card last four backfill", backfillService::backfillCardLastFour);
+                    runInChunks("card number envelope migration", backfillService::migrateCardNumberEnvelopes);
+                });
+            } catch (Exception e) {
+                log.error("Card backfill could not run: {}", e.getMessage(), e);
+            }
+        });
+    }
+
+    private void runInChunks(String jobName, UnaryOperator<Long> chunk) {
+        long failedBefore = backfillService.getFailedCards();
+        try {
+            log.info("Starting {}", jobName);
+            Long lastId = 0L;
+            int chunks = 0;
+            while ((lastId = chunk.apply(lastId)) != null) {
+                chunks++;
+            }
+            long failed = backfillService.getFailedCards() - failedBefore;
+            if (failed > 0) {
+                log.error("Finished {} with {} failed cards, processed chunks: {}", jobName, failed, chunks);
+            } else {
+                log.info("Finished {}, processed chunks: {}", jobName, chunks);
+            }
+        } catch (Exception e) {
+            log.error("{} failed: {}", jobName, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package kg.manurov.bankmvc.components;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Node-local lock striping by card id. Transfers touching the same card queue up here, in memory,
+ * instead of convoying on the card's row lock while each holds a database connection. Stripes are
+ * always taken in ascending order, so callers locking several cards cannot deadlock each other.
+ * Stripes are fair, so a waiter on a hot card is served in arrival order rather than being
+ * overtaken by newcomers until it times out.
+ * <p>
+ * This only orders work inside one instance; the row locks taken by the transfer itself remain
+ * the source of truth across instances.
+ */
+@Slf4j
+@Component
+public class CardLockManager {
+    private static final long[] WAIT_BUCKETS_MICROS = {10, 100, 1_000, 10_000, 100_000, 1_000_000, Long.MAX_VALUE};
+
+    @Value("${app.transfer.lock_stripes:1024}")
+    private Integer stripeCount;
+
+    @Value("${app.transfer.lock_timeout_ms:5000}")
+    private Long lockTimeoutMs;
+
+    private ReentrantLock[] locks;
+    private final LongAdder[] waitBuckets = new LongAdder[WAIT_BUCKETS_MICROS.length];
+    private final LongAdder totalWaitNanos = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock(true);
+        }
+        for (int i = 0; i < waitBuckets.length; i++) {
+            waitBuckets[i] = new LongAdder();
+        }
+        log.info("Card lock manager initialized, stripes: {}", size);
+    }
+
+    /**
+     * Runs {@code action} while holding the stripes of all given cards.
+     * <p>
+     * All stripes together are waited for at most {@code app.transfer.lock_timeout_ms}, however
+     * long the queue on a hot card, so a request thread is never parked for longer; past that the
+     * call is rejected and the client can retry.
+     *
+     * @throws CannotAcquireLockException if the stripes are not all free within the timeout
+     */
+    public <T> T withLocks(Supplier<T> action, Long... cardIds) {
+        int[] stripes = stripesOf(cardIds);
+        int acquired = 0;
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(lockTimeoutMs);
+        try {
+            for (int stripe : stripes) {
+                if (!locks[stripe].tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    throw new CannotAcquireLockException("Timed out waiting for card lock");
+                }
+                acquired++;
+            }
+            recordWait(System.nanoTime() - started);
+            return action.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotAcquireLockException("Interrupted while waiting for card lock", e);
+        } finally {
+            for (int i = acquired - 1; i >= 0; i--) {
+                locks[stripes[i]].unlock();
+            }
+        }
+    }
+
+    /**
+     * Lock wait-time histogram: upper bound of each bucket in microseconds ({@link Long#MAX_VALUE}
+     * for the overflow bucket) to the number of acquisitions that waited that long.
+     */
+    public Map<Long, Long> getWaitTimeHistogram() {
+        Map<Long, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < WAIT_BUCKETS_MICROS.length; i++) {
+            histogram.put(WAIT_BUCKETS_MICROS[i], waitBuckets[i].sum());
+        }
+        return histogram;
+    }
+
+    public long getTotalWaitNanos() {
+        return totalWaitNanos.sum();
+    }
+
+    private int[] stripesOf(Long... cardIds) {
+        return Arrays.stream(cardIds)
+                .mapToInt(this::stripeOf)
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    private int stripeOf(Long cardId) {
+        long hash = cardId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (locks.length - 1);
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.add(waitNanos);
+        long waitMicros = TimeUnit.NANOSECONDS.toMicros(waitNanos);
+        for (int i = 0; i < WAIT_BUCKETS_MICROS.length; i++) {
+            if (waitMicros <= WAIT_BUCKETS_MICROS[i]) {
+                waitBuckets[i].increment();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package kg.manurov.bankmvc.components;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timings of the fragments dashboard pages are composed of, keyed {@code page.fragment}: how often
+ * each ran, for how long in total and at most, and how often the page was rendered without it
+ * because it failed or missed the page deadline. The same figures are published as the
+ * {@code bank.dashboard.fragment} timer and {@code bank.dashboard.fragment.fallbacks} counter,
+ * tagged with the page and the fragment. Reads holding a page permit, including ones whose
+ * page has already been rendered without them, are counted by {@link #getActiveReads()}.
+ */
+@Component
+@RequiredArgsConstructor
+public class DashboardMetrics {
+    private final ConcurrentMap<String, Fragment> fragments = new ConcurrentHashMap<>();
+    private final AtomicInteger activeReads = new AtomicInteger();
+    private final MeterRegistry meterRegistry;
+
+    public void readStarted() {
+        activeReads.incrementAndGet();
+    }
+
+    public void readFinished() {
+        activeReads.decrementAndGet();
+    }
+
+    public int getActiveReads() {
+        return activeReads.get();
+    }
+
+    public void recordTiming(String fragment, long nanos) {
+        Fragment timing = fragment(fragment);
+        timing.count.increment();
+        timing.totalNanos.add(nanos);
+        timing.maxNanos.accumulate(nanos);
+        timing.timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordFallback(String fragment) {
+        Fragment timing = fragment(fragment);
+        timing.fallbacks.increment();
+        timing.fallbackCounter.increment();
+    }
+
+    public Map<String, FragmentTiming> getFragmentTimings() {
+        Map<String, FragmentTiming> timings = new TreeMap<>();
+        fragments.forEach((name, fragment) -> timings.put(name, new FragmentTiming(
+                fragment.count.sum(), fragment.totalNanos.sum(), fragment.maxNanos.get(), fragment.fallbacks.sum())));
+        return timings;
+    }
+
+    private Fragment fragment(String fragment) {
+        return fragments.computeIfAbsent(fragment, name -> {
+            int separator = name.indexOf('.');
+            String page = separator > 0 ? name.substring(0, separator) : name;
+            String part = separator > 0 ? name.substring(separator + 1) : name;
+            return new Fragment(
+                    Timer.builder("bank.dashboard.fragment")
+                            .tag("page", page)
+                            .tag("fragment", part)
+                            .register(meterRegistry),
+                    Counter.builder("bank.dashboard.fragment.fallbacks")
+                            .tag("page", page)
+                            .tag("fragment", part)
+                            .register(meterRegistry));
+        });
+    }
+
+    public record FragmentTiming(long count, long totalNanos, long maxNanos, long fallbacks) {
+    }
+
+    private static final class Fragment {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder fallbacks = new LongAdder();
+        private final Timer timer;
+        private final Counter fallbackCounter;
+
+        private Fragment(Timer timer, Counter fallbackCounter) {
+            this.timer = timer;
+            this.fallbackCounter = fallbackCounter;
+        }
+    }
+}
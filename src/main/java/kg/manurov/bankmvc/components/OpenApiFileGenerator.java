@@ -4,14 +4,16 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
 import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.concurrent.CompletableFuture;
 
 /**
  * Epam
@@ -23,6 +25,7 @@ import java.util.concurrent.CompletableFuture;
 @Slf4j
 @Component
 public class OpenApiFileGenerator implements CommandLineRunner {
+    private final AsyncTaskExecutor taskExecutor;
 
     @Value("${server.port}")
     private String port;
@@ -30,9 +33,19 @@ public class OpenApiFileGenerator implements CommandLineRunner {
     @Value("${server.servlet.context-path:}")
     private String contextPath;
 
+    /**
+     * Runs on the application task executor rather than the common fork-join pool, which is meant
+     * for CPU-bound work; with virtual threads enabled the blocking sleep and HTTP call then
+     * occupy no platform thread.
+     */
+    public OpenApiFileGenerator(
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) AsyncTaskExecutor taskExecutor) {
+        this.taskExecutor = taskExecutor;
+    }
+
     @Override
     public void run(String... args) {
-        CompletableFuture.runAsync(this::generateOpenApiFile);
+        taskExecutor.execute(this::generateOpenApiFile);
     }
 
     private void generateOpenApiFile() {
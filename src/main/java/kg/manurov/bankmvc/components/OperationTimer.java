@@ -0,0 +1,57 @@
+package kg.manurov.bankmvc.components;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ValidationException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+/**
+ * Times business operations into Micrometer timers tagged with their {@code outcome}:
+ * {@code success}, {@code rejected} when the operation refused its input (validation, a missing
+ * or foreign entity, a state that does not allow it) and {@code failed} for anything else. Tags
+ * passed by callers must come from a small fixed set of values.
+ */
+@Component
+@RequiredArgsConstructor
+public class OperationTimer {
+    public static final String SUCCESS = "success";
+    public static final String REJECTED = "rejected";
+    public static final String FAILED = "failed";
+
+    private final MeterRegistry meterRegistry;
+
+    public <T> T time(String name, Supplier<T> operation, String... tags) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = FAILED;
+        try {
+            T result = operation.get();
+            outcome = SUCCESS;
+            return result;
+        } catch (RuntimeException e) {
+            outcome = outcomeOf(e);
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(name)
+                    .tags(tags)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    public void time(String name, Runnable operation, String... tags) {
+        time(name, () -> {
+            operation.run();
+            return null;
+        }, tags);
+    }
+
+    private static String outcomeOf(RuntimeException e) {
+        return e instanceof ValidationException || e instanceof IllegalArgumentException
+               || e instanceof NoSuchElementException || e instanceof AccessDeniedException ? REJECTED : FAILED;
+    }
+}
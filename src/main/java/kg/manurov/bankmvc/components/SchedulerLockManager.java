@@ -0,0 +1,72 @@
+package kg.manurov.bankmvc.components;
+
+import kg.manurov.bankmvc.repositories.SchedulerLockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Cluster-wide mutual exclusion for scheduled jobs, backed by the scheduler_locks table. Every node
+ * fires its {@code @Scheduled} methods, but only the one that takes the job's row runs the job;
+ * the others skip that run.
+ * <p>
+ * A lock is held at most {@code lockAtMostFor}, so a node that dies mid-run does not block the job
+ * forever, and at least {@code lockAtLeastFor}, so nodes whose clocks are slightly apart do not
+ * run the same trigger one after another.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SchedulerLockManager {
+    private static final String NODE_ID = ManagementFactory.getRuntimeMXBean().getName();
+
+    private final SchedulerLockRepository lockRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Runs {@code task} if lock {@code name} can be taken.
+     *
+     * @return {@code true} if the task ran, {@code false} if another node holds the lock
+     */
+    public boolean runLocked(String name, Duration lockAtMostFor, Duration lockAtLeastFor, Runnable task) {
+        Instant lockedAt = Instant.now();
+        if (!tryLock(name, lockedAt, lockedAt.plus(lockAtMostFor))) {
+            log.info("Skipping job {}: locked by another node", name);
+            return false;
+        }
+        try {
+            task.run();
+            return true;
+        } finally {
+            Instant releaseAt = lockedAt.plus(lockAtLeastFor);
+            Instant now = Instant.now();
+            transactionTemplate.executeWithoutResult(status ->
+                    lockRepository.release(name, releaseAt.isAfter(now) ? releaseAt : now, NODE_ID));
+        }
+    }
+
+    private boolean tryLock(String name, Instant now, Instant lockedUntil) {
+        Integer updated = transactionTemplate.execute(status ->
+                lockRepository.acquireExpired(name, lockedUntil, now, NODE_ID));
+        if (updated != null && updated > 0) {
+            return true;
+        }
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (lockRepository.existsById(name)) {
+                    return false;
+                }
+                lockRepository.insert(name, lockedUntil, now, NODE_ID);
+                return true;
+            }));
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+}
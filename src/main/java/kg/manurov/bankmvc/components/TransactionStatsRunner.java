@@ -0,0 +1,29 @@
+package kg.manurov.bankmvc.components;
+
+import kg.manurov.bankmvc.service.TransactionStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransactionStatsRunner implements CommandLineRunner {
+    @Value("${app.transaction_stats.rebuild_on_startup}")
+    private boolean rebuildOnStartup;
+    private final TransactionStatsService transactionStatsService;
+
+    @Override
+    public void run(String... args) {
+        if (!rebuildOnStartup) {
+            return;
+        }
+        try {
+            transactionStatsService.rebuildIfEmpty();
+        } catch (Exception e) {
+            log.error("Transaction statistics rebuild failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package kg.manurov.bankmvc.components;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Users loaded for authentication, keyed by phone number, so HTTP Basic requests do not reload the
+ * user and its role on every call. Bounded by {@code app.auth_cache.user_max_size} and expired
+ * {@code app.auth_cache.user_ttl_seconds} after loading; changes to a user that affect
+ * authentication must call {@link #evict(String)}.
+ */
+@Slf4j
+@Component
+public class UserDetailsCache implements UserCache {
+    @Value("${app.auth_cache.user_ttl_seconds:300}")
+    private Long ttlSeconds;
+
+    @Value("${app.auth_cache.user_max_size:10000}")
+    private Long maxSize;
+
+    private Cache<String, UserDetails> users;
+
+    @PostConstruct
+    void init() {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        log.info("User details cache initialized, max size: {}, ttl: {}s", maxSize, ttlSeconds);
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        return users.getIfPresent(username);
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        users.put(user.getUsername(), user);
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        users.invalidate(username);
+    }
+
+    /**
+     * Drops the user now and, when called inside a transaction, again after it commits, so an
+     * authentication running concurrently cannot put back the state from before the change.
+     */
+    public void evict(String username) {
+        removeUserFromCache(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    removeUserFromCache(username);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package kg.manurov.bankmvc.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import kg.manurov.bankmvc.aspects.CardMaskingAspect;
+import kg.manurov.bankmvc.components.CardLockManager;
+import kg.manurov.bankmvc.components.DashboardMetrics;
+import kg.manurov.bankmvc.service.CardExpiryService;
+import kg.manurov.bankmvc.util.CryptoEngine;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the figures components already keep for themselves as Micrometer meters, read at
+ * scrape time, so the hot paths pay nothing beyond their own counters. Timers of business
+ * operations are recorded where they run, through {@link kg.manurov.bankmvc.components.OperationTimer}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Card lock acquisitions per wait-time bucket, and the total time spent waiting.
+     */
+    @Bean
+    public MeterBinder cardLockMetrics(CardLockManager cardLockManager) {
+        return registry -> {
+            FunctionCounter.builder("bank.card_lock.wait", cardLockManager,
+                            lockManager -> lockManager.getTotalWaitNanos() / 1e9)
+                    .baseUnit("seconds")
+                    .description("Time spent waiting for card locks")
+                    .register(registry);
+            for (Long bound : cardLockManager.getWaitTimeHistogram().keySet()) {
+                FunctionCounter.builder("bank.card_lock.acquisitions", cardLockManager,
+                                lockManager -> lockManager.getWaitTimeHistogram().get(bound))
+                        .tag("wait", waitBucket(bound))
+                        .description("Card lock acquisitions by how long they waited, at most")
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder dashboardReadMetrics(DashboardMetrics dashboardMetrics) {
+        return registry -> Gauge.builder("bank.dashboard.reads.active", dashboardMetrics,
+                        DashboardMetrics::getActiveReads)
+                .description("Dashboard reads running, including those past their page deadline")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder cardExpiryMetrics(CardExpiryService cardExpiryService) {
+        return registry -> {
+            FunctionCounter.builder("bank.card_expiry.cards", cardExpiryService, CardExpiryService::getTotalRows)
+                    .description("Cards marked as expired")
+                    .register(registry);
+            Gauge.builder("bank.card_expiry.last_run.cards", cardExpiryService, CardExpiryService::getLastRunRows)
+                    .description("Cards marked as expired by the last run")
+                    .register(registry);
+            TimeGauge.builder("bank.card_expiry.last_run.duration", cardExpiryService, TimeUnit.MILLISECONDS,
+                            CardExpiryService::getLastRunDurationMs)
+                    .description("Duration of the last expiry run")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder cryptoMetrics(CryptoEngine cryptoEngine) {
+        return registry -> {
+            cryptoCounter(registry, cryptoEngine, "encrypt", CryptoEngine::getEncryptions);
+            cryptoCounter(registry, cryptoEngine, "decrypt", CryptoEngine::getDecryptions);
+            cryptoCounter(registry, cryptoEngine, "hmac", CryptoEngine::getHmacs);
+        };
+    }
+
+    @Bean
+    public MeterBinder cardMaskingMetrics(CardMaskingAspect cardMaskingAspect) {
+        return registry -> {
+            maskingCounter(registry, cardMaskingAspect, "revealed", CardMaskingAspect::getRevealed);
+            maskingCounter(registry, cardMaskingAspect, "masked", CardMaskingAspect::getMasked);
+            maskingCounter(registry, cardMaskingAspect, "failed", CardMaskingAspect::getFailed);
+        };
+    }
+
+    private static void cryptoCounter(MeterRegistry registry, CryptoEngine cryptoEngine,
+                                      String operation, ToDoubleFunction<CryptoEngine> count) {
+        FunctionCounter.builder("bank.crypto.operations", cryptoEngine, count)
+                .tag("operation", operation)
+                .description("Values encrypted, decrypted or hashed")
+                .register(registry);
+    }
+
+    private static void maskingCounter(MeterRegistry registry,
+                                       CardMaskingAspect aspect, String outcome, ToDoubleFunction<CardMaskingAspect> count) {
+        FunctionCounter.builder("bank.card_masking.invocations", aspect, count)
+                .tag("outcome", outcome)
+                .description("Card numbers revealed to their owner or masked for anyone else")
+                .register(registry);
+    }
+
+    private static String waitBucket(long boundMicros) {
+        if (boundMicros == Long.MAX_VALUE) {
+            return "inf";
+        }
+        if (boundMicros < 1_000) {
+            return boundMicros + "us";
+        }
+        if (boundMicros < 1_000_000) {
+            return boundMicros / 1_000 + "ms";
+        }
+        return boundMicros / 1_000_000 + "s";
+    }
+}
@@ -1,51 +1,114 @@
 package kg.manurov.bankmvc.config;
 
+import kg.manurov.bankmvc.components.AccessTokenService;
+import kg.manurov.bankmvc.components.UserDetailsCache;
+import kg.manurov.bankmvc.handlers.AccessTokenAuthenticationFilter;
 import kg.manurov.bankmvc.handlers.RoleBasedAuthenticationSuccessHandler;
+import kg.manurov.bankmvc.util.CachingPasswordEncoder;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
 @RequiredArgsConstructor
 //https://attractor-school.com/courses/java/
 //Epam
 public class SecurityConfig {
+    @Value("${app.rest_path}")
+    private String restPath;
+    @Value("${app.auth_cache.credential_ttl_seconds:300}")
+    private Long credentialTtlSeconds;
+    @Value("${app.auth_cache.credential_max_size:10000}")
+    private Long credentialMaxSize;
+
     @Bean
     public AuthenticationSuccessHandler authenticationSuccessHandler() {
         return new RoleBasedAuthenticationSuccessHandler();
     }
+
+    /**
+     * Form login, the access token endpoint and HTTP Basic all authenticate here. Loaded users and verified credentials are
+     * cached, so a client sending the same credentials with every request is neither reloaded
+     * from the database nor re-verified with BCrypt each time.
+     */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
-        http.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.ALWAYS))
+    public DaoAuthenticationProvider authenticationProvider(UserDetailsService userDetailsService,
+                                                            PasswordEncoder passwordEncoder,
+                                                            UserDetailsCache userDetailsCache) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(new CachingPasswordEncoder(
+                passwordEncoder, Duration.ofSeconds(credentialTtlSeconds), credentialMaxSize));
+        provider.setUserCache(userDetailsCache);
+        return provider;
+    }
+
+    @Bean
+    public AuthenticationManager authenticationManager(DaoAuthenticationProvider authenticationProvider) {
+        return new ProviderManager(authenticationProvider);
+    }
+
+    /**
+     * Actuator endpoints: health is open to load balancers, everything else, including the
+     * Prometheus scrape, needs an admin authenticated the same stateless way as the REST API.
+     */
+    @Bean
+    @Order(0)
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http, AccessTokenService accessTokenService) throws Exception {
+        http.securityMatcher(EndpointRequest.toAnyEndpoint())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .httpBasic(Customizer.withDefaults())
-                .formLogin(form -> form
-                        .loginPage("/auth/login")
-                        .loginProcessingUrl("/login")
-                        .successHandler(authenticationSuccessHandler())
-                        .failureUrl("/login?error=true")
-                        .permitAll())
-                .logout(logout -> logout
-                        .logoutRequestMatcher(new AntPathRequestMatcher("/logout"))
-                        .permitAll())
+                .addFilterBefore(new AccessTokenAuthenticationFilter(accessTokenService, bearerEntryPoint()),
+                        BasicAuthenticationFilter.class)
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(authorize -> authorize
-                        // Public endpoints - no authentication required
-                        .requestMatchers(HttpMethod.GET, "/auth/register").permitAll()
-                        .requestMatchers(HttpMethod.POST, "/auth/register").permitAll()
-                        .requestMatchers("/swagger-ui/**", "/swagger-resources/*", "/v3/api-docs/**").permitAll()
-                        .requestMatchers("/css/**", "/js/**", "/images/**", "/favicon.ico").permitAll()
-                        .requestMatchers("/error").permitAll()
+                        .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                        .anyRequest().hasAuthority("ROLE_ADMIN"));
+        return http.build();
+    }
 
+    /**
+     * The REST API is stateless: no HTTP session is created or read, and each request authenticates
+     * with a bearer token from {@code POST <rest_path>/auth/token}, verified in-process without a
+     * database round trip, or with HTTP Basic through the cached provider.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain restFilterChain(HttpSecurity http, AccessTokenService accessTokenService) throws Exception {
+        http.securityMatcher(restPath + "/**")
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .httpBasic(Customizer.withDefaults())
+                .addFilterBefore(new AccessTokenAuthenticationFilter(accessTokenService, bearerEntryPoint()),
+                        BasicAuthenticationFilter.class)
+                .csrf(AbstractHttpConfigurer::disable)
+                .authorizeHttpRequests(authorize -> authorize
+                        // Access tokens
+                        .requestMatchers(HttpMethod.POST, restPath + "/auth/token").permitAll()
 
                         // Card Application endpoints
                         .requestMatchers(HttpMethod.POST, "/api/v1/card-applications").hasAuthority("ROLE_USER")
@@ -63,22 +126,54 @@ public class SecurityConfig {
 
                         // Transaction endpoints
                         .requestMatchers(HttpMethod.POST, "/api/v1/transactions/transfer").hasAuthority("ROLE_USER")
+                        .requestMatchers(HttpMethod.POST, "/api/v1/transactions/transfer/batch").hasAuthority("ROLE_USER")
+                        .requestMatchers(HttpMethod.GET, "/api/v1/transactions/history").hasAuthority("ROLE_USER")
+                        .requestMatchers(HttpMethod.GET, "/api/v1/transactions/history/export").hasAuthority("ROLE_USER")
+                        .requestMatchers(HttpMethod.GET, "/api/v1/transactions/export").hasAuthority("ROLE_ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/api/v1/transactions/*/refund").hasAuthority("ROLE_ADMIN")
 
                         // User Management endpoints (Admin only)
                         .requestMatchers(HttpMethod.POST, "/api/v1/users/*/toggle-status").hasAuthority("ROLE_ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/api/v1/users/*").hasAuthority("ROLE_ADMIN")
 
+                        .anyRequest().authenticated());
+        return http.build();
+    }
+
+    @Bean
+    @Order(2)
+    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+        http.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.ALWAYS))
+                .formLogin(form -> form
+                        .loginPage("/auth/login")
+                        .loginProcessingUrl("/login")
+                        .successHandler(authenticationSuccessHandler())
+                        .failureUrl("/login?error=true")
+                        .permitAll())
+                .logout(logout -> logout
+                        .logoutRequestMatcher(new AntPathRequestMatcher("/logout"))
+                        .permitAll())
+                .csrf(AbstractHttpConfigurer::disable)
+                .authorizeHttpRequests(authorize -> authorize
+                        // Public endpoints - no authentication required
+                        .requestMatchers(HttpMethod.GET, "/auth/register").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/auth/register").permitAll()
+                        .requestMatchers("/swagger-ui/**", "/swagger-resources/*", "/v3/api-docs/**").permitAll()
+                        .requestMatchers("/css/**", "/js/**", "/images/**", "/favicon.ico").permitAll()
+                        .requestMatchers("/error").permitAll()
+
                         // User web pages - only USER role
                         .requestMatchers("/card-applications/my").hasAuthority("ROLE_USER")
                         .requestMatchers("/transactions/transfer").hasAuthority("ROLE_USER")
                         .requestMatchers("/transactions/my").hasAuthority("ROLE_USER")
+                        .requestMatchers("/transactions/my/export").hasAuthority("ROLE_USER")
                         .requestMatchers("/profile").hasAuthority("ROLE_USER")
                         .requestMatchers("/profile/**").hasAuthority("ROLE_USER")
 
                         // Admin-only web pages
                         .requestMatchers("/card-applications/admin/**").hasAuthority("ROLE_ADMIN")
                         .requestMatchers("/transactions/all").hasAuthority("ROLE_ADMIN")
+                        .requestMatchers("/transactions/all/export").hasAuthority("ROLE_ADMIN")
                         .requestMatchers("/admin/**").hasAuthority("ROLE_ADMIN")
                         .requestMatchers("/users").hasAuthority("ROLE_ADMIN")
                         .requestMatchers("/users/**").hasAuthority("ROLE_ADMIN")
@@ -90,4 +185,11 @@ public class SecurityConfig {
                         .anyRequest().authenticated());
         return http.build();
     }
+
+    private AuthenticationEntryPoint bearerEntryPoint() {
+        return (request, response, exception) -> {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            response.sendError(HttpStatus.UNAUTHORIZED.value(), exception.getMessage());
+        };
+    }
 }
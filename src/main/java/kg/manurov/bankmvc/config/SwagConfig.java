@@ -27,8 +27,10 @@ public class SwagConfig {
         return new OpenAPI()
                 .info(getApiInfo())
                 .servers(getServers())
+                .addSecurityItem(new SecurityRequirement().addList("Bearer Authentication"))
                 .addSecurityItem(new SecurityRequirement().addList("Basic Authentication"))
                 .components(new Components()
+                        .addSecuritySchemes("Bearer Authentication", createBearerAuthScheme())
                         .addSecuritySchemes("Basic Authentication", createBasicAuthScheme()));
     }
 
@@ -48,6 +50,7 @@ public class SwagConfig {
                         - ADMIN: full system access
                         
                         **Security:**
+                        - Bearer access tokens issued by POST /auth/token
                         - Basic Authentication (username/password)
                         - Card number encryption
                         - Sensitive data masking
@@ -66,6 +69,13 @@ public class SwagConfig {
                         .description("Local development server"));
     }
 
+    private SecurityScheme createBearerAuthScheme() {
+        return new SecurityScheme()
+                .type(SecurityScheme.Type.HTTP)
+                .scheme("bearer")
+                .description("Access token from POST /auth/token");
+    }
+
     private SecurityScheme createBasicAuthScheme() {
         return new SecurityScheme()
                 .type(SecurityScheme.Type.HTTP)
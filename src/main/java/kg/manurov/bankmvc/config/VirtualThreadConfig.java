@@ -0,0 +1,61 @@
+package kg.manurov.bankmvc.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import kg.manurov.bankmvc.util.PermitDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Active when {@code spring.threads.virtual.enabled} is set on Java 21 or later. Spring Boot then
+ * runs Tomcat requests, the application task executor and scheduled jobs on virtual threads; this
+ * configuration only puts a fair permit queue of {@code app.virtual_threads.jdbc_permits} in front
+ * of the connection pool, so an unbounded number of request threads cannot stampede it.
+ * Run with {@code -Djdk.tracePinnedThreads=short} (the {@code virtual-threads} Maven profile does)
+ * to log virtual threads that block while pinned inside {@code synchronized} code. Free permits
+ * and waiting threads are published as {@code bank.jdbc.permits.available} and
+ * {@code bank.jdbc.permits.waiting}.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+//https://docs.spring.io/spring-boot/docs/3.2.x/reference/html/features.html#features.spring-application.virtual-threads
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor jdbcPermitPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof PermitDataSource) {
+                    return bean;
+                }
+                int permits = environment.getProperty("app.virtual_threads.jdbc_permits", Integer.class, 10);
+                long timeoutMs = environment.getProperty("app.virtual_threads.jdbc_permit_timeout_ms", Long.class, 30000L);
+                log.info("Virtual threads enabled, data source '{}' limited to {} JDBC permits, timeout: {}ms",
+                        beanName, permits, timeoutMs);
+                return new PermitDataSource(dataSource, permits, Duration.ofMillis(timeoutMs));
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder jdbcPermitMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof PermitDataSource permits) {
+                Gauge.builder("bank.jdbc.permits.available", permits, PermitDataSource::getAvailablePermits)
+                        .register(registry);
+                Gauge.builder("bank.jdbc.permits.waiting", permits, PermitDataSource::getQueueLength)
+                        .register(registry);
+            }
+        };
+    }
+}
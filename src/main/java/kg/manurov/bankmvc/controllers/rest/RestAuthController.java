@@ -0,0 +1,55 @@
+package kg.manurov.bankmvc.controllers.rest;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirements;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import kg.manurov.bankmvc.components.AccessTokenService;
+import kg.manurov.bankmvc.dto.ApiResponse;
+import kg.manurov.bankmvc.dto.users.TokenRequest;
+import kg.manurov.bankmvc.dto.users.TokenResponse;
+import kg.manurov.bankmvc.entities.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Slf4j
+@RestController
+@RequestMapping("/auth")
+@RequiredArgsConstructor
+@SecurityRequirements
+@Tag(name = "Authentication", description = "Access tokens for the REST API")
+public class RestAuthController {
+    private final AuthenticationManager authenticationManager;
+    private final AccessTokenService accessTokenService;
+
+    @Operation(summary = "Issue access token",
+            description = "Exchange phone number and password for a short-lived bearer token")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Token issued",
+                    content = @Content(schema = @Schema(implementation = TokenResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "401",
+                    description = "Wrong credentials or disabled user")
+    })
+    @PostMapping("/token")
+    public ResponseEntity<ApiResponse<TokenResponse>> issueToken(@Valid @RequestBody TokenRequest request) {
+        Authentication authentication = authenticationManager.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated(request.getPhoneNumber(), request.getPassword()));
+        User user = (User) authentication.getPrincipal();
+        log.info("Access token issued to user {}", user.getId());
+        return ResponseEntity.ok(ApiResponse.success("Access token issued", accessTokenService.issue(user)));
+    }
+}
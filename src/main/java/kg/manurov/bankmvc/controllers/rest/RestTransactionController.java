@@ -9,14 +9,24 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import kg.manurov.bankmvc.dto.ApiResponse;
+import kg.manurov.bankmvc.dto.CursorPage;
 import kg.manurov.bankmvc.dto.transactions.TransactionDto;
+import kg.manurov.bankmvc.dto.transactions.TransferBatchRequest;
 import kg.manurov.bankmvc.dto.transactions.TransferRequest;
+import kg.manurov.bankmvc.dto.transactions.TransferResult;
+import kg.manurov.bankmvc.enums.ExportFormat;
+import kg.manurov.bankmvc.enums.TransactionStatus;
+import kg.manurov.bankmvc.service.TransactionExportService;
 import kg.manurov.bankmvc.service.TransactionService;
 import kg.manurov.bankmvc.util.AuthenticatedUserUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.List;
 
 @Slf4j
 @RestController
@@ -27,6 +37,7 @@ import org.springframework.web.bind.annotation.*;
 public class RestTransactionController {
 
     private final TransactionService transactionService;
+    private final TransactionExportService exportService;
     private final AuthenticatedUserUtil userUtil;
 
     @Operation(summary = "Transfer between own cards",
@@ -54,6 +65,98 @@ public class RestTransactionController {
         return ResponseEntity.ok(ApiResponse.success("Transfer completed successfully. Transaction ID: " + id));
     }
 
+    @Operation(summary = "Batch transfer between own cards",
+            description = "Apply a list of transfers between current user's cards in one go. " +
+                          "Each transfer is validated on its own; the response reports the outcome of every item")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Batch processed, see per-item results",
+                    content = @Content(schema = @Schema(implementation = TransferResult.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Empty or oversized batch")
+    })
+    @PostMapping("/transfer/batch")
+    public ResponseEntity<ApiResponse<List<TransferResult>>> transferBatch(
+            @Valid @RequestBody TransferBatchRequest request) {
+
+        log.info("User {} initiates batch of {} transfers", userUtil.getCurrentUsername(), request.getTransfers().size());
+        List<TransferResult> results = transactionService.transferBatch(request.getTransfers());
+        long succeeded = results.stream()
+                .filter(result -> TransactionStatus.SUCCESS.name().equals(result.getStatus()))
+                .count();
+        return ResponseEntity.ok(ApiResponse.success(
+                "Batch processed: " + succeeded + " of " + results.size() + " transfers succeeded", results));
+    }
+
+    @Operation(summary = "Current user's transaction history",
+            description = "Newest first, keyset-paginated: pass the nextCursor of a page to get the one after it")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Page of transactions",
+                    content = @Content(schema = @Schema(implementation = TransactionDto.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid cursor")
+    })
+    @GetMapping("/history")
+    public ResponseEntity<ApiResponse<CursorPage<TransactionDto>>> getHistory(
+            @Parameter(description = "Cursor returned with the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, at most 100") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Only transactions of this card") @RequestParam(required = false) Long cardId,
+            @Parameter(description = "Created on or after this date") @RequestParam(required = false) LocalDate dateFrom,
+            @Parameter(description = "Created on or before the start of this date") @RequestParam(required = false) LocalDate dateTo) {
+        CursorPage<TransactionDto> page = transactionService.getTransactionHistory(
+                userUtil.getCurrentUserId(), dateFrom, dateTo, cardId, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success("Transactions: " + page.getNumberOfElements(), page));
+    }
+
+    @Operation(summary = "Export current user's transactions",
+            description = "Streams every transaction of the current user matching the filters, newest first, " +
+                          "as CSV or NDJSON (one JSON object per line). Card numbers are masked")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Export file"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Unknown format")
+    })
+    @GetMapping("/history/export")
+    public ResponseEntity<StreamingResponseBody> exportHistory(
+            @Parameter(description = "Only transactions of this card") @RequestParam(required = false) Long cardId,
+            @Parameter(description = "Created on or after this date") @RequestParam(required = false) LocalDate dateFrom,
+            @Parameter(description = "Created on or before the start of this date") @RequestParam(required = false) LocalDate dateTo,
+            @Parameter(description = "csv or ndjson") @RequestParam(defaultValue = "csv") String format) {
+        Long userId = userUtil.getCurrentUserId();
+        ExportFormat exportFormat = ExportFormat.of(format);
+        return exportFormat.response(out -> exportService.export(userId, cardId, dateFrom, dateTo, exportFormat, out));
+    }
+
+    @Operation(summary = "Export all transactions",
+            description = "Streams every transaction matching the filters, newest first, as CSV or NDJSON " +
+                          "(one JSON object per line). Card numbers are masked")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Export file"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Unknown format")
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAll(
+            @Parameter(description = "Only transactions of this user's cards") @RequestParam(required = false) Long userId,
+            @Parameter(description = "Only transactions of this card") @RequestParam(required = false) Long cardId,
+            @Parameter(description = "Created on or after this date") @RequestParam(required = false) LocalDate dateFrom,
+            @Parameter(description = "Created on or before the start of this date") @RequestParam(required = false) LocalDate dateTo,
+            @Parameter(description = "csv or ndjson") @RequestParam(defaultValue = "csv") String format) {
+        log.info("Admin {} exports transactions (user: {}, card: {})", userUtil.getCurrentUsername(), userId, cardId);
+        ExportFormat exportFormat = ExportFormat.of(format);
+        return exportFormat.response(out -> exportService.export(userId, cardId, dateFrom, dateTo, exportFormat, out));
+    }
 
     @Operation(summary = "Refund transaction by ID")
     @ApiResponses(value = {
@@ -74,4 +177,4 @@ public class RestTransactionController {
         transactionService.refundTransaction(id);
         return ResponseEntity.ok(ApiResponse.success("Transaction refund successfully!"));
     }
-}
\ No newline at end of file
+}
@@ -1,23 +1,24 @@
 package kg.manurov.bankmvc.controllers.web;
 
+import kg.manurov.bankmvc.dto.CursorPage;
 import kg.manurov.bankmvc.dto.cards.CardDto;
 import kg.manurov.bankmvc.dto.transactions.TransactionDto;
 import kg.manurov.bankmvc.service.CardService;
+import kg.manurov.bankmvc.enums.ExportFormat;
+import kg.manurov.bankmvc.service.DashboardService;
+import kg.manurov.bankmvc.service.TransactionExportService;
 import kg.manurov.bankmvc.service.TransactionService;
 import kg.manurov.bankmvc.util.AuthenticatedUserUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
-import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -28,17 +29,33 @@ import java.util.List;
 public class TransactionController {
     private final TransactionService transactionService;
     private final CardService cardService;
+    private final DashboardService dashboardService;
+    private final TransactionExportService exportService;
     private final AuthenticatedUserUtil userUtil;
 
     @GetMapping("/all")
     public String getAllTransactions(
-            @PageableDefault(size = 2, sort = "createdAt", direction = Sort.Direction.DESC)
-            Pageable pageable, Model model) {
-        Page<TransactionDto> transactions = transactionService.getAllTransactions(pageable);
+            @RequestParam(required = false, name = "cursor") String cursor,
+            @RequestParam(defaultValue = "10", name = "size") int size,
+            Model model) {
+        CursorPage<TransactionDto> transactions = transactionService.getAllTransactions(cursor, size);
         model.addAttribute("transactions",transactions);
+        model.addAttribute("size", size);
+        model.addAttribute("firstPage", cursor == null || cursor.isBlank());
         return "admin/adminTransaction";
     }
 
+    @GetMapping("/all/export")
+    public ResponseEntity<StreamingResponseBody> exportAllTransactions(
+            @RequestParam(required = false, name = "userId") Long userId,
+            @RequestParam(required = false, name = "cardId") Long cardId,
+            @RequestParam(required = false, name = "dateFrom") LocalDate dateFrom,
+            @RequestParam(required = false, name = "dateTo") LocalDate dateTo,
+            @RequestParam(defaultValue = "csv", name = "format") String format) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        return exportFormat.response(out -> exportService.export(userId, cardId, dateFrom, dateTo, exportFormat, out));
+    }
+
     @GetMapping("/transfer")
     public String getTransferPage(Model model) {
         Long userId = userUtil.getCurrentUserId();
@@ -49,26 +66,32 @@ public class TransactionController {
 
     @GetMapping("/my")
     public String getMyTransactions(
-            @PageableDefault(size = 2, sort = "createdAt", direction = Sort.Direction.DESC)
-            Pageable pageable, Model model,
+            @RequestParam(required = false, name = "cursor") String cursor,
+            @RequestParam(defaultValue = "10", name = "size") int size,
+            Model model,
             @RequestParam(required = false, name = "dateFrom") LocalDate dateFrom,
             @RequestParam(required = false, name = "dateTo") LocalDate dateTo,
             @RequestParam(required = false, name = "cardId") Long selectedCardId
             ) {
         Long userId = userUtil.getCurrentUserId();
-        Page<TransactionDto> transactions = transactionService.getTransactionByUserId(pageable, userId, dateFrom, dateTo, selectedCardId);
-        List<CardDto> cards = cardService.getUserCards(userId);
-        int monthlyTrans = transactionService.getMonthlyTransactionByUserId(userId);
-        BigDecimal totAmount = transactionService.getTotTransAmount(userId);
-        model.addAttribute("transactions", transactions);
-        model.addAttribute("monthlyTransactions", monthlyTrans);
-        model.addAttribute("totalAmount", totAmount);
+        model.addAllAttributes(dashboardService.transactionHistory(
+                userId, dateFrom, dateTo, selectedCardId, cursor, size));
+        model.addAttribute("size", size);
+        model.addAttribute("firstPage", cursor == null || cursor.isBlank());
         model.addAttribute("cardId", selectedCardId);
-        model.addAttribute("userCards", cards);
         model.addAttribute("dateFrom", dateFrom);
         model.addAttribute("dateTo", dateTo);
         return "user/userTransactionHistory";
     }
 
-
+    @GetMapping("/my/export")
+    public ResponseEntity<StreamingResponseBody> exportMyTransactions(
+            @RequestParam(required = false, name = "cardId") Long cardId,
+            @RequestParam(required = false, name = "dateFrom") LocalDate dateFrom,
+            @RequestParam(required = false, name = "dateTo") LocalDate dateTo,
+            @RequestParam(defaultValue = "csv", name = "format") String format) {
+        Long userId = userUtil.getCurrentUserId();
+        ExportFormat exportFormat = ExportFormat.of(format);
+        return exportFormat.response(out -> exportService.export(userId, cardId, dateFrom, dateTo, exportFormat, out));
+    }
 }
@@ -0,0 +1,28 @@
+package kg.manurov.bankmvc.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is an opaque token that resumes the
+ * listing right after the last element; it is {@code null} on the last page. Unlike an offset
+ * page there is no total count, so deep pages cost the same as the first one.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+
+    @JsonIgnore
+    public int getNumberOfElements() {
+        return content.size();
+    }
+}
@@ -1,10 +1,12 @@
 package kg.manurov.bankmvc.dto.cards;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
+import kg.manurov.bankmvc.entities.CardNumber;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
@@ -25,6 +27,9 @@ public class CardDto {
     @NotBlank
     @Schema()
     String cardNumber;
+    @JsonIgnore
+    @Schema(hidden = true)
+    CardNumber storedCardNumber;
     @NotNull
     @Schema()
     String ownerName;
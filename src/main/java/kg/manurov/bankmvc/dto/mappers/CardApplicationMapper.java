@@ -2,6 +2,7 @@ package kg.manurov.bankmvc.dto.mappers;
 
 import kg.manurov.bankmvc.dto.cardApplication.CardApplicationDto;
 import kg.manurov.bankmvc.dto.cardApplication.CardApplicationRequest;
+import kg.manurov.bankmvc.dto.projections.CardApplicationListView;
 import kg.manurov.bankmvc.entities.CardApplication;
 import kg.manurov.bankmvc.entities.User;
 import kg.manurov.bankmvc.enums.CardRequestStatus;
@@ -32,6 +33,24 @@ public class CardApplicationMapper {
                 .build();
     }
 
+    public CardApplicationDto mapToDto(CardApplicationListView application) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+        return CardApplicationDto.builder()
+                .id(application.id())
+                .userId(application.userId())
+                .userName(String.format("%s %s %s",
+                        application.userFirstName(),
+                        application.userLastName(),
+                        application.userMiddleName()))
+                .cardType(application.cardType())
+                .comment(application.comment())
+                .status(application.status())
+                .createdAt(formatInstant(application.createdAt(), formatter))
+                .processedAt(formatInstant(application.processedAt(), formatter))
+                .build();
+    }
+
     private String formatInstant(Instant instant, DateTimeFormatter formatter) {
         if (instant!=null) return instant.atZone(ZoneId.systemDefault()).format(formatter);
         else return "";
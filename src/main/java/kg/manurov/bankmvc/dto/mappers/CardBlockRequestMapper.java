@@ -2,8 +2,10 @@ package kg.manurov.bankmvc.dto.mappers;
 
 import kg.manurov.bankmvc.dto.cards.CardBlockRequestCreateDto;
 import kg.manurov.bankmvc.dto.cards.CardBlockRequestDto;
+import kg.manurov.bankmvc.dto.projections.CardBlockRequestListView;
 import kg.manurov.bankmvc.entities.Card;
 import kg.manurov.bankmvc.entities.CardBlockRequest;
+import kg.manurov.bankmvc.entities.CardNumber;
 import kg.manurov.bankmvc.enums.CardRequestStatus;
 import org.springframework.stereotype.Component;
 
@@ -19,7 +21,7 @@ public class CardBlockRequestMapper {
         return CardBlockRequestDto.builder()
                 .id(request.getId())
                 .cardId(request.getCard().getId())
-                .cardNumber(request.getCard().getCardNumber())
+                .cardNumber(request.getCard().getCardNumber().masked())
                 .userId(request.getUser().getId())
                 .userName(String.format("%s %s %s",
                         request.getUser().getFirstName(),
@@ -32,6 +34,26 @@ public class CardBlockRequestMapper {
                 .processedAt(formatInstant(request.getProcessedAt(), formatter))
                 .build();
     }
+
+    public CardBlockRequestDto mapToDto(CardBlockRequestListView request) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+        return CardBlockRequestDto.builder()
+                .id(request.id())
+                .cardId(request.cardId())
+                .cardNumber(CardNumber.mask(request.cardLastFour()))
+                .userId(request.userId())
+                .userName(String.format("%s %s %s",
+                        request.userFirstName(),
+                        request.userLastName(),
+                        request.userMiddleName()))
+                .reason(request.reason())
+                .status(request.status())
+                .adminComment(request.adminComment())
+                .createdAt(formatInstant(request.createdAt(), formatter))
+                .processedAt(formatInstant(request.processedAt(), formatter))
+                .build();
+    }
+
     private String formatInstant(Instant instant, DateTimeFormatter formatter) {
         if (instant!=null) return instant.atZone(ZoneId.systemDefault()).format(formatter);
         else return "";
@@ -1,7 +1,9 @@
 package kg.manurov.bankmvc.dto.mappers;
 
 import kg.manurov.bankmvc.dto.cards.CardDto;
+import kg.manurov.bankmvc.dto.projections.CardListView;
 import kg.manurov.bankmvc.entities.Card;
+import kg.manurov.bankmvc.entities.CardNumber;
 import kg.manurov.bankmvc.entities.User;
 import kg.manurov.bankmvc.enums.CardStatus;
 import lombok.extern.slf4j.Slf4j;
@@ -24,7 +26,8 @@ public class CardMapper {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
         CardDto dto = new CardDto();
         dto.setId(card.getId());
-        dto.setCardNumber(card.getCardNumber());
+        dto.setCardNumber(card.getCardNumber().masked());
+        dto.setStoredCardNumber(card.getCardNumber());
         dto.setOwnerName(String.format("%s %s %s",
                 card.getOwner().getFirstName(),
                 card.getOwner().getLastName(),
@@ -40,13 +43,30 @@ public class CardMapper {
         return dto;
     }
 
+    public CardDto toDto(CardListView card) {
+        CardDto dto = new CardDto();
+        dto.setId(card.id());
+        dto.setCardNumber(CardNumber.mask(card.lastFour()));
+        dto.setOwnerName(String.format("%s %s %s",
+                card.ownerFirstName(),
+                card.ownerLastName(),
+                card.ownerMiddleName()));
+        dto.setOwnerId(card.ownerId());
+        dto.setExpiryDate(card.expiryDate());
+        dto.setStatus(card.status());
+        dto.setType(card.type());
+        dto.setBalance(card.balance());
+        return dto;
+    }
+
     private String formatInstant(Instant instant, DateTimeFormatter formatter) {
         if (instant!=null) return instant.atZone(ZoneId.systemDefault()).format(formatter);
         else return "";
     }
 
-    public Card createEntity(User owner, String encryptedCardNumber, String cardType) {
-        return new Card().setCardNumber(encryptedCardNumber)
+    public Card createEntity(User owner, String plainCardNumber, String cardNumberHash, String cardType) {
+        return new Card().setCardNumber(CardNumber.ofPlainText(plainCardNumber))
+        .setCardNumberHash(cardNumberHash)
         .setOwner(owner)
         .setType(cardType)
         .setExpiryDate(LocalDate.now().plusYears(this.expiryDate))
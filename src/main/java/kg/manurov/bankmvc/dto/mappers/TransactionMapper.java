@@ -1,10 +1,15 @@
 package kg.manurov.bankmvc.dto.mappers;
 
+import kg.manurov.bankmvc.dto.projections.TransactionListView;
 import kg.manurov.bankmvc.dto.transactions.TransactionDto;
 import kg.manurov.bankmvc.dto.transactions.TransferRequest;
 import kg.manurov.bankmvc.entities.Card;
+import kg.manurov.bankmvc.entities.CardNumber;
 import kg.manurov.bankmvc.entities.Transaction;
 import kg.manurov.bankmvc.enums.TransactionStatus;
+import kg.manurov.bankmvc.util.AuthenticatedUserUtil;
+import kg.manurov.bankmvc.util.EncryptionUtil;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
@@ -14,17 +19,26 @@ import java.time.format.DateTimeFormatter;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class TransactionMapper {
+    private final EncryptionUtil encryptionUtil;
+    private final AuthenticatedUserUtil userUtil;
+
+    /**
+     * Card numbers are shown in full on the current user's own cards and masked from their stored
+     * last four digits otherwise; admins always get them masked, so only owner views decrypt.
+     */
     public TransactionDto toDto(Transaction transaction) {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+        boolean isAdmin = userUtil.isCurrentUserAdmin();
 
         TransactionDto dto = new TransactionDto();
         dto.setId(transaction.getId());
         dto.setFromCardId(transaction.getFromCard().getId());
         dto.setToCardId(transaction.getToCard().getId());
 
-        dto.setFromCardNumber(transaction.getFromCard().getCardNumber());
-        dto.setToCardNumber(transaction.getToCard().getCardNumber());
+        dto.setFromCardNumber(cardNumber(transaction.getFromCard(), isAdmin));
+        dto.setToCardNumber(cardNumber(transaction.getToCard(), isAdmin));
 
         dto.setAmount(transaction.getAmount());
         dto.setDescription(transaction.getDescription());
@@ -35,12 +49,41 @@ public class TransactionMapper {
 
         return dto;
     }
+
+    public TransactionDto toDto(TransactionListView transaction) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+        TransactionDto dto = new TransactionDto();
+        dto.setId(transaction.id());
+        dto.setFromCardId(transaction.fromCardId());
+        dto.setToCardId(transaction.toCardId());
+
+        dto.setFromCardNumber(CardNumber.mask(transaction.fromCardLastFour()));
+        dto.setToCardNumber(CardNumber.mask(transaction.toCardLastFour()));
+
+        dto.setAmount(transaction.amount());
+        dto.setDescription(transaction.description());
+        dto.setStatus(transaction.status());
+        dto.setCreatedAt(formatInstant(transaction.createdAt(), formatter));
+        dto.setProcessedAt(formatInstant(transaction.processedAt(), formatter));
+        dto.setErrorMessage(transaction.errorMessage());
+
+        return dto;
+    }
+
+    private String cardNumber(Card card, boolean isAdmin) {
+        if (!isAdmin && userUtil.isCurrentUserOwner(card.getOwner().getId())) {
+            return encryptionUtil.revealCardNumber(card.getCardNumber());
+        }
+        return card.getCardNumber().masked();
+    }
+
     private String formatInstant(Instant instant, DateTimeFormatter formatter) {
         if (instant!=null) return instant.atZone(ZoneId.systemDefault()).format(formatter);
         else return "";
     }
 
-    public Transaction toEntity(Card toCard, Card fromCard, TransferRequest request) {
+    public Transaction toEntity(Card fromCard, Card toCard, TransferRequest request) {
         String description = request.getToCardId().equals(request.getFromCardId())
                 ? "Пополнение счета через терминал"
                 : request.getDescription();
@@ -53,7 +96,7 @@ public class TransactionMapper {
                 .build();
     }
 
-    public Transaction toEntityWithError(Card toCard, Card fromCard, TransferRequest request, String err) {
+    public Transaction toEntityWithError(Card fromCard, Card toCard, TransferRequest request, String err) {
         String description = request.getToCardId().equals(request.getFromCardId())
                 ? "Пополнение счета через терминал"
                 : request.getDescription();
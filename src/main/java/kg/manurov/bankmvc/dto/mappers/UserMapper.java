@@ -1,6 +1,7 @@
 package kg.manurov.bankmvc.dto.mappers;
 
 import kg.manurov.bankmvc.dto.cards.CardDto;
+import kg.manurov.bankmvc.dto.projections.CardSummaryView;
 import kg.manurov.bankmvc.dto.users.SignUpRequest;
 import kg.manurov.bankmvc.dto.users.UserDto;
 import kg.manurov.bankmvc.entities.Role;
@@ -10,6 +11,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @Slf4j
@@ -33,6 +35,17 @@ public class UserMapper {
         return dto;
     }
 
+    /**
+     * Row of the users list: the user's own fields plus the card count and total balance from
+     * {@code summary} ({@code null} when the user has no cards), without loading any card.
+     */
+    public UserDto toListDto(User user, CardSummaryView summary) {
+        UserDto dto = getUserDto(user);
+        dto.setCardCount(summary != null ? summary.getCardCount() : 0L);
+        dto.setTotalBalance(summary != null ? summary.getTotalBalance() : BigDecimal.ZERO);
+        return dto;
+    }
+
     public User toEntity(SignUpRequest request) {
         return User.builder()
                 .firstName(request.getName())
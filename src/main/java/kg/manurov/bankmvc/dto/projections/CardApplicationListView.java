@@ -0,0 +1,12 @@
+package kg.manurov.bankmvc.dto.projections;
+
+import java.time.Instant;
+
+/**
+ * Row of the admin card application list, selected straight into this record without loading the
+ * application or its user.
+ */
+public record CardApplicationListView(Long id, Long userId, String userFirstName, String userLastName,
+                                      String userMiddleName, String cardType, String comment, String status,
+                                      Instant createdAt, Instant processedAt) {
+}
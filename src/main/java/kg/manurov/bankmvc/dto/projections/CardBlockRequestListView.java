@@ -0,0 +1,12 @@
+package kg.manurov.bankmvc.dto.projections;
+
+import java.time.Instant;
+
+/**
+ * Row of the admin block request list, selected straight into this record without loading the
+ * request, its card or its user.
+ */
+public record CardBlockRequestListView(Long id, Long cardId, String cardLastFour, Long userId, String userFirstName,
+                                       String userLastName, String userMiddleName, String reason, String status,
+                                       String adminComment, Instant createdAt, Instant processedAt) {
+}
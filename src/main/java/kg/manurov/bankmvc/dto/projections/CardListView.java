@@ -0,0 +1,12 @@
+package kg.manurov.bankmvc.dto.projections;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Row of the admin card list, selected straight into this record without loading the card or its owner.
+ */
+public record CardListView(Long id, String lastFour, Long ownerId, String ownerFirstName, String ownerLastName,
+                           String ownerMiddleName, LocalDate expiryDate, String status, String type,
+                           BigDecimal balance) {
+}
@@ -0,0 +1,6 @@
+package kg.manurov.bankmvc.dto.projections;
+
+public interface CardNumberView {
+    Long getId();
+    String getCardNumber();
+}
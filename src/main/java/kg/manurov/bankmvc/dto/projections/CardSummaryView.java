@@ -0,0 +1,9 @@
+package kg.manurov.bankmvc.dto.projections;
+
+import java.math.BigDecimal;
+
+public interface CardSummaryView {
+    Long getOwnerId();
+    Long getCardCount();
+    BigDecimal getTotalBalance();
+}
@@ -0,0 +1,13 @@
+package kg.manurov.bankmvc.dto.projections;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Row of the admin transaction list, selected straight into this record without loading the
+ * transaction or its cards.
+ */
+public record TransactionListView(Long id, Long fromCardId, String fromCardLastFour, Long toCardId,
+                                  String toCardLastFour, BigDecimal amount, String description, String status,
+                                  Instant createdAt, Instant processedAt, String errorMessage) {
+}
@@ -0,0 +1,25 @@
+package kg.manurov.bankmvc.dto.transactions;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Getter
+@Setter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Batch of transfers between cards")
+public class TransferBatchRequest {
+    public static final int MAX_SIZE = 10_000;
+
+    @Schema(description = "Transfers, applied in order; each one is validated against the balances left by the previous ones")
+    @NotEmpty(message = "Batch must contain at least one transfer")
+    @Size(max = MAX_SIZE, message = "Batch cannot contain more than " + MAX_SIZE + " transfers")
+    List<TransferRequest> transfers;
+}
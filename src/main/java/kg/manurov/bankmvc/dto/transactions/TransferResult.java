@@ -0,0 +1,29 @@
+package kg.manurov.bankmvc.dto.transactions;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Getter
+@Setter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Outcome of one transfer in a batch")
+public class TransferResult {
+
+    @Schema(description = "Position of the transfer in the batch")
+    Integer index;
+
+    @Schema(description = "Transaction ID, if a transaction was recorded")
+    Long transactionId;
+
+    @Schema(description = "Transfer status", allowableValues = {"SUCCESS", "FAILED"})
+    String status;
+
+    @Schema(description = "Reason the transfer failed")
+    String errorMessage;
+}
@@ -0,0 +1,23 @@
+package kg.manurov.bankmvc.dto.users;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import lombok.experimental.FieldDefaults;
+
+@Getter
+@Setter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Accessors(chain = true)
+@Schema(description = "Access token request")
+public class TokenRequest {
+    @Schema(description = "Phone number", example = "+7(900)1234567")
+    @NotBlank
+    String phoneNumber;
+    @Schema(description = "Password", example = "password")
+    @NotBlank
+    String password;
+}
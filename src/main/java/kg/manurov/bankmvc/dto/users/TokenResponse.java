@@ -0,0 +1,22 @@
+package kg.manurov.bankmvc.dto.users;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import lombok.experimental.FieldDefaults;
+
+@Getter
+@Setter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Accessors(chain = true)
+@Schema(description = "Issued access token")
+public class TokenResponse {
+    @Schema(description = "Signed access token, sent as \"Authorization: Bearer <token>\"")
+    String accessToken;
+    @Schema(description = "Token type", example = "Bearer")
+    String tokenType;
+    @Schema(description = "Seconds until the token expires", example = "900")
+    Long expiresIn;
+}
@@ -5,6 +5,7 @@ import jakarta.validation.constraints.NotNull;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @FieldDefaults(level = AccessLevel.PRIVATE)
@@ -24,6 +25,8 @@ public class UserDto {
     String lastName;
     Boolean enabled;
     List<CardDto> cards;
+    Long cardCount;
+    BigDecimal totalBalance;
 
     public String getFullName(){
         return String.format("%s %s %s%n", firstName, middleName != null ? middleName : "", lastName);
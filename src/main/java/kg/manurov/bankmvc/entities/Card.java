@@ -26,12 +26,16 @@ import java.time.LocalDate;
 @EntityListeners(AuditingEntityListener.class)
 public class Card {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cards_seq")
+    @SequenceGenerator(name = "cards_seq", sequenceName = "cards_id_seq", allocationSize = 50)
     @Column(name = "id", nullable = false)
     Long id;
 
-    @Column(name = "card_number", nullable = false)
-    String cardNumber;
+    @Embedded
+    CardNumber cardNumber;
+
+    @Column(name = "card_number_hash", length = 64, unique = true)
+    String cardNumberHash;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @OnDelete(action = OnDeleteAction.CASCADE)
@@ -62,4 +66,9 @@ public class Card {
     @LastModifiedDate
     Instant updatedAt;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    Long version;
+
 }
\ No newline at end of file
@@ -24,7 +24,8 @@ import java.time.Instant;
 @EntityListeners(AuditingEntityListener.class)
 public class CardApplication {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "card_applications_seq")
+    @SequenceGenerator(name = "card_applications_seq", sequenceName = "card_applications_id_seq", allocationSize = 50)
     Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
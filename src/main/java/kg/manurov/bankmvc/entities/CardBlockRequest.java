@@ -23,7 +23,8 @@ import java.time.Instant;
 @EntityListeners(AuditingEntityListener.class)
 public class CardBlockRequest {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "card_block_requests_seq")
+    @SequenceGenerator(name = "card_block_requests_seq", sequenceName = "card_block_requests_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.EAGER, optional = false)
@@ -0,0 +1,76 @@
+package kg.manurov.bankmvc.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Embeddable;
+import kg.manurov.bankmvc.entities.converters.CipherTextConverter;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * Card number as stored on a {@link Card}: the ciphertext plus the plain last four digits.
+ * Listing and masking only need the last four, so the full number is decrypted lazily,
+ * on the first {@link #reveal(UnaryOperator)}, and never written back into the entity state.
+ * Encryption happens in {@link CipherTextConverter} when the card is written, however it is
+ * persisted. The value is immutable: a card gets a new number by getting a new instance.
+ */
+@Embeddable
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CardNumber {
+    private static final String MASK = "****";
+    private static final String MASK_PREFIX = "**** **** **** ";
+
+    @Convert(converter = CipherTextConverter.class)
+    @Column(name = "card_number", nullable = false)
+    CipherText cipherText;
+
+    @Column(name = "last_four", length = 4)
+    String lastFour;
+
+    private CardNumber(CipherText cipherText, String lastFour) {
+        this.cipherText = cipherText;
+        this.lastFour = lastFour;
+    }
+
+    public static CardNumber ofPlainText(String plainText) {
+        return new CardNumber(CipherText.ofPlainText(plainText), lastFourOf(plainText));
+    }
+
+    /**
+     * Last four digits of a plain card number, skipping any grouping spaces; {@code null} if there are fewer.
+     */
+    public static String lastFourOf(String plainText) {
+        if (plainText == null) {
+            return null;
+        }
+        char[] digits = new char[4];
+        int found = 0;
+        for (int i = plainText.length() - 1; i >= 0 && found < digits.length; i--) {
+            char c = plainText.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                digits[digits.length - 1 - found++] = c;
+            }
+        }
+        return found == digits.length ? new String(digits) : null;
+    }
+
+    public static String mask(String lastFour) {
+        return lastFour != null ? MASK_PREFIX + lastFour : MASK;
+    }
+
+    public String getLastFour() {
+        return lastFour;
+    }
+
+    public String reveal(UnaryOperator<String> decryptor) {
+        return cipherText.reveal(decryptor);
+    }
+
+    public String masked() {
+        return mask(lastFour);
+    }
+}
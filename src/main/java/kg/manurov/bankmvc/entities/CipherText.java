@@ -0,0 +1,61 @@
+package kg.manurov.bankmvc.entities;
+
+import kg.manurov.bankmvc.entities.converters.CipherTextConverter;
+import org.hibernate.annotations.Immutable;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * Value of an encrypted column, converted by {@link CipherTextConverter}. A value read from the
+ * database holds the stored ciphertext; a new one holds the plain text and is encrypted by the
+ * converter when it is first written. Neither side ever replaces the other, so the entity holding
+ * it never changes between ciphertext and plaintext and is never dirtied by encryption or decryption.
+ * <p>
+ * Both sides are memoized on first use only: a value is encrypted at most once however often it is
+ * written, and decrypted at most once however often it is read. Hibernate treats the value as
+ * immutable and compares it by identity.
+ */
+@Immutable
+public final class CipherText {
+    private volatile String stored;
+    private volatile String plainText;
+
+    private CipherText(String stored, String plainText) {
+        this.stored = stored;
+        this.plainText = plainText;
+    }
+
+    public static CipherText ofStored(String stored) {
+        return new CipherText(stored, null);
+    }
+
+    public static CipherText ofPlainText(String plainText) {
+        return new CipherText(null, plainText);
+    }
+
+    /**
+     * Column value: the stored ciphertext, or the plain text encrypted once with {@code encryptor}.
+     */
+    public String seal(UnaryOperator<String> encryptor) {
+        String value = stored;
+        if (value == null) {
+            value = encryptor.apply(plainText);
+            stored = value;
+        }
+        return value;
+    }
+
+    public String reveal(UnaryOperator<String> decryptor) {
+        String value = plainText;
+        if (value == null) {
+            value = decryptor.apply(stored);
+            plainText = value;
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "CipherText[****]";
+    }
+}
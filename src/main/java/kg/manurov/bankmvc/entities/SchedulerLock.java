@@ -0,0 +1,36 @@
+package kg.manurov.bankmvc.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.Accessors;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Instant;
+
+/**
+ * Row of the scheduler lock table: a scheduled job runs only on the node that holds its row,
+ * and only until {@code lockedUntil}.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter
+@Setter
+@Entity
+@Builder
+@Accessors(chain = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "scheduler_locks")
+public class SchedulerLock {
+    @Id
+    @Column(name = "name", nullable = false, length = 64)
+    String name;
+
+    @Column(name = "locked_until", nullable = false)
+    Instant lockedUntil;
+
+    @Column(name = "locked_at", nullable = false)
+    Instant lockedAt;
+
+    @Column(name = "locked_by", nullable = false)
+    String lockedBy;
+}
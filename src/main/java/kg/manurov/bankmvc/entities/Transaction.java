@@ -20,11 +20,15 @@ import java.time.Instant;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_from_card_created_at", columnList = "from_card_id, created_at, id"),
+        @Index(name = "idx_transactions_to_card_created_at", columnList = "to_card_id, created_at, id")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Transaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_id_seq", allocationSize = 50)
     Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -0,0 +1,48 @@
+package kg.manurov.bankmvc.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.Accessors;
+import lombok.experimental.FieldDefaults;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * {@link UserTransactionStats} bucketed by calendar month (UTC); {@code monthStart} is the first day
+ * of the month.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter
+@Setter
+@Entity
+@Builder
+@Accessors(chain = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(UserMonthlyTransactionStats.Key.class)
+@Table(name = "user_monthly_transaction_stats")
+public class UserMonthlyTransactionStats {
+    @Id
+    @Column(name = "user_id", nullable = false)
+    Long userId;
+
+    @Id
+    @Column(name = "month_start", nullable = false)
+    LocalDate monthStart;
+
+    @Column(name = "transaction_count", nullable = false)
+    Long transactionCount;
+
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 2)
+    BigDecimal totalAmount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private LocalDate monthStart;
+    }
+}
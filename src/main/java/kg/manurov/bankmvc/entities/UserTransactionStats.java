@@ -0,0 +1,33 @@
+package kg.manurov.bankmvc.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.Accessors;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+
+/**
+ * Running totals over every transaction touching one of the user's cards, kept up to date by the
+ * transfer paths so dashboards read one row instead of aggregating the transactions table.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter
+@Setter
+@Entity
+@Builder
+@Accessors(chain = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "user_transaction_stats")
+public class UserTransactionStats {
+    @Id
+    @Column(name = "user_id", nullable = false)
+    Long userId;
+
+    @Column(name = "transaction_count", nullable = false)
+    Long transactionCount;
+
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 2)
+    BigDecimal totalAmount;
+}
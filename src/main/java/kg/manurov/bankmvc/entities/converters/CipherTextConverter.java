@@ -0,0 +1,31 @@
+package kg.manurov.bankmvc.entities.converters;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import kg.manurov.bankmvc.entities.CipherText;
+import kg.manurov.bankmvc.util.CryptoEngine;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * Encrypts {@link CipherText} columns on the way into the database and wraps stored values on the
+ * way out without decrypting them. Hibernate obtains it from the Spring context; the engine is
+ * resolved lazily so the persistence unit does not depend on it being built first.
+ */
+@Converter
+public class CipherTextConverter implements AttributeConverter<CipherText, String> {
+    private final CryptoEngine cryptoEngine;
+
+    public CipherTextConverter(@Lazy CryptoEngine cryptoEngine) {
+        this.cryptoEngine = cryptoEngine;
+    }
+
+    @Override
+    public String convertToDatabaseColumn(CipherText value) {
+        return value != null ? value.seal(cryptoEngine::encrypt) : null;
+    }
+
+    @Override
+    public CipherText convertToEntityAttribute(String stored) {
+        return stored != null ? CipherText.ofStored(stored) : null;
+    }
+}
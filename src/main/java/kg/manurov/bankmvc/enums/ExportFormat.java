@@ -0,0 +1,50 @@
+package kg.manurov.bankmvc.enums;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+public enum ExportFormat implements EnumInterface {
+    CSV("text/csv;charset=UTF-8", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * A download of {@code body} in this format, named {@code transactions-<today>.<extension>}.
+     */
+    public ResponseEntity<StreamingResponseBody> response(StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(contentType))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("transactions-" + LocalDate.now() + "." + extension)
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    public static ExportFormat of(String value) {
+        if (value == null || !EnumInterface.isExists(ExportFormat.class, value)) {
+            throw new IllegalArgumentException(EnumInterface.getEnumDescription(ExportFormat.class));
+        }
+        return valueOf(value.strip().toUpperCase());
+    }
+}
@@ -0,0 +1,49 @@
+package kg.manurov.bankmvc.handlers;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import kg.manurov.bankmvc.util.RequestOperations;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many crypto operations and card masking calls each request needed, as the
+ * {@code bank.request.crypto.operations} and {@code bank.request.card_masking.invocations}
+ * summaries tagged with the matched route template, so the tag has one value per route. Requests
+ * no handler matched are not recorded.
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestOperationsFilter extends OncePerRequestFilter {
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestOperations.Tally tally = RequestOperations.open();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestOperations.close(tally);
+            if (request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String uri) {
+                record("bank.request.crypto.operations", uri, tally.getCrypto());
+                record("bank.request.card_masking.invocations", uri, tally.getCardMasking());
+            }
+        }
+    }
+
+    private void record(String name, String uri, long operations) {
+        DistributionSummary.builder(name)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(operations);
+    }
+}
@@ -0,0 +1,17 @@
+package kg.manurov.bankmvc.repositories;
+
+import kg.manurov.bankmvc.dto.projections.CardApplicationListView;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Read model of the admin card application list: selects the displayed columns of an application
+ * and its user straight into {@link CardApplicationListView} rows, without loading either entity.
+ */
+public interface CardApplicationListingRepository {
+
+    /**
+     * @param status only applications with this status, ignored if {@code null}
+     */
+    Page<CardApplicationListView> findListPage(String status, Pageable pageable);
+}
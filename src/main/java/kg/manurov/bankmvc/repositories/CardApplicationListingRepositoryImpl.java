@@ -0,0 +1,36 @@
+package kg.manurov.bankmvc.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import kg.manurov.bankmvc.dto.projections.CardApplicationListView;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+@Transactional(readOnly = true)
+class CardApplicationListingRepositoryImpl implements CardApplicationListingRepository {
+    private static final Map<String, String> SORTABLE = Map.of(
+            "id", "a.id",
+            "cardType", "a.cardType",
+            "status", "a.status",
+            "createdAt", "a.createdAt",
+            "processedAt", "a.processedAt");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<CardApplicationListView> findListPage(String status, Pageable pageable) {
+        String where = status != null ? " WHERE a.status = :status" : "";
+        Map<String, Object> parameters = status != null ? Map.of("status", status) : Map.of();
+
+        return ListingQueries.page(entityManager, CardApplicationListView.class,
+                "SELECT new kg.manurov.bankmvc.dto.projections.CardApplicationListView(a.id, u.id, u.firstName, " +
+                "u.lastName, u.middleName, a.cardType, a.comment, a.status, a.createdAt, a.processedAt) " +
+                "FROM CardApplication a JOIN a.user u" + where,
+                "SELECT COUNT(a) FROM CardApplication a" + where,
+                parameters, pageable, SORTABLE);
+    }
+}
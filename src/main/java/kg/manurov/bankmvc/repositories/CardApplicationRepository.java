@@ -6,5 +6,6 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface CardApplicationRepository extends JpaRepository<CardApplication, Long>, JpaSpecificationExecutor<CardApplication> {
+public interface CardApplicationRepository extends JpaRepository<CardApplication, Long>, JpaSpecificationExecutor<CardApplication>,
+        CardApplicationListingRepository {
 }
\ No newline at end of file
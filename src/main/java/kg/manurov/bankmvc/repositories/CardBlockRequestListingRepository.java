@@ -0,0 +1,14 @@
+package kg.manurov.bankmvc.repositories;
+
+import kg.manurov.bankmvc.dto.projections.CardBlockRequestListView;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Read model of the admin block request list: selects the displayed columns of a request, its card
+ * and its user straight into {@link CardBlockRequestListView} rows, without loading any entity.
+ */
+public interface CardBlockRequestListingRepository {
+
+    Page<CardBlockRequestListView> findListPage(Pageable pageable);
+}
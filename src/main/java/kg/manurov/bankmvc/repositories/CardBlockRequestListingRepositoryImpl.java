@@ -0,0 +1,33 @@
+package kg.manurov.bankmvc.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import kg.manurov.bankmvc.dto.projections.CardBlockRequestListView;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+@Transactional(readOnly = true)
+class CardBlockRequestListingRepositoryImpl implements CardBlockRequestListingRepository {
+    private static final Map<String, String> SORTABLE = Map.of(
+            "id", "r.id",
+            "status", "r.status",
+            "createdAt", "r.createdAt",
+            "processedAt", "r.processedAt");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<CardBlockRequestListView> findListPage(Pageable pageable) {
+        return ListingQueries.page(entityManager, CardBlockRequestListView.class,
+                "SELECT new kg.manurov.bankmvc.dto.projections.CardBlockRequestListView(r.id, c.id, " +
+                "c.cardNumber.lastFour, u.id, u.firstName, u.lastName, u.middleName, r.reason, r.status, " +
+                "r.adminComment, r.createdAt, r.processedAt) " +
+                "FROM CardBlockRequest r JOIN r.card c JOIN r.user u",
+                "SELECT COUNT(r) FROM CardBlockRequest r",
+                Map.of(), pageable, SORTABLE);
+    }
+}
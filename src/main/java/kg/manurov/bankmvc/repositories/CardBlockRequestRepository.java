@@ -9,7 +9,9 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface CardBlockRequestRepository extends JpaRepository<CardBlockRequest, Long> {
+public interface CardBlockRequestRepository extends JpaRepository<CardBlockRequest, Long>, CardBlockRequestListingRepository {
+    @ReadOnlyQuery
     Page<CardBlockRequest> findByUserId(Long userId, Pageable pageable);
+    @ReadOnlyQuery
     List<CardBlockRequest> findByCardIdAndStatus(Long id, String name);
 }
\ No newline at end of file
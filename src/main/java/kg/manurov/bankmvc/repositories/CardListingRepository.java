@@ -0,0 +1,21 @@
+package kg.manurov.bankmvc.repositories;
+
+import kg.manurov.bankmvc.dto.projections.CardListView;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+
+/**
+ * Read model of the admin card list: selects the displayed columns of a card and its owner straight
+ * into {@link CardListView} rows, without loading either entity.
+ */
+public interface CardListingRepository {
+
+    /**
+     * @param status      only cards with this status, ignored if {@code null}
+     * @param balanceFrom only cards with at least this balance, ignored if {@code null}
+     * @param balanceTo   only cards with at most this balance, ignored if {@code null}
+     */
+    Page<CardListView> findListPage(String status, BigDecimal balanceFrom, BigDecimal balanceTo, Pageable pageable);
+}
@@ -0,0 +1,55 @@
+package kg.manurov.bankmvc.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import kg.manurov.bankmvc.dto.projections.CardListView;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Transactional(readOnly = true)
+class CardListingRepositoryImpl implements CardListingRepository {
+    private static final Map<String, String> SORTABLE = Map.of(
+            "id", "c.id",
+            "cardNumber", "c.cardNumber.lastFour",
+            "balance", "c.balance",
+            "expiryDate", "c.expiryDate",
+            "status", "c.status",
+            "createdAt", "c.createdAt");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<CardListView> findListPage(String status, BigDecimal balanceFrom, BigDecimal balanceTo,
+                                           Pageable pageable) {
+        Map<String, Object> parameters = new HashMap<>();
+        List<String> predicates = new ArrayList<>();
+        if (status != null) {
+            predicates.add("c.status = :status");
+            parameters.put("status", status);
+        }
+        if (balanceFrom != null) {
+            predicates.add("c.balance >= :balanceFrom");
+            parameters.put("balanceFrom", balanceFrom);
+        }
+        if (balanceTo != null) {
+            predicates.add("c.balance <= :balanceTo");
+            parameters.put("balanceTo", balanceTo);
+        }
+        String where = predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates);
+
+        return ListingQueries.page(entityManager, CardListView.class,
+                "SELECT new kg.manurov.bankmvc.dto.projections.CardListView(c.id, c.cardNumber.lastFour, o.id, " +
+                "o.firstName, o.lastName, o.middleName, c.expiryDate, c.status, c.type, c.balance) " +
+                "FROM Card c JOIN c.owner o" + where,
+                "SELECT COUNT(c) FROM Card c" + where,
+                parameters, pageable, SORTABLE);
+    }
+}
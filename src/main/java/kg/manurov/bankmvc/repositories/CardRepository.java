@@ -1,24 +1,97 @@
 package kg.manurov.bankmvc.repositories;
 
+import kg.manurov.bankmvc.dto.projections.CardNumberView;
+import kg.manurov.bankmvc.dto.projections.CardSummaryView;
+import jakarta.persistence.LockModeType;
 import kg.manurov.bankmvc.entities.Card;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CardRepository extends JpaRepository<Card, Long> , JpaSpecificationExecutor<Card> {
-    boolean existsByCardNumber(String cardNumber);
+public interface CardRepository extends JpaRepository<Card, Long> , JpaSpecificationExecutor<Card>, CardListingRepository {
+    boolean existsByCardNumberHash(String cardNumberHash);
+    Optional<Card> findByCardNumberHash(String cardNumberHash);
+    @ReadOnlyQuery
     List<Card> findByOwnerId(Long ownerId);
 
+    @ReadOnlyQuery
     @Query("SELECT c FROM Card c WHERE c.owner.id = :ownerId AND c.status = 'ACTIVE'")
     List<Card> findActiveCardsByOwnerId(@Param("ownerId") Long ownerId);
 
-    @Query("SELECT c FROM Card c WHERE c.expiryDate < :currentDate")
-    List<Card> findExpiredCards(@Param("currentDate") LocalDate currentDate);
+    /**
+     * Number of cards and their total balance for each of the given owners that has any card.
+     */
+    @ReadOnlyQuery
+    @Query("SELECT c.owner.id AS ownerId, COUNT(c) AS cardCount, SUM(c.balance) AS totalBalance FROM Card c " +
+           "WHERE c.owner.id IN :ownerIds GROUP BY c.owner.id")
+    List<CardSummaryView> summarizeByOwnerIds(@Param("ownerIds") Collection<Long> ownerIds);
+
+    /**
+     * Locks the given cards with SELECT ... FOR UPDATE. Rows are locked in id order, so two
+     * transfers over the same pair of cards can never deadlock on each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Card c WHERE c.id IN :ids ORDER BY c.id")
+    List<Card> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Smallest and largest id of the cards past their expiry date that are not yet marked EXPIRED,
+     * as a single row; both are {@code null} when there are none.
+     */
+    @Query("SELECT MIN(c.id), MAX(c.id) FROM Card c WHERE c.expiryDate < :today AND c.status <> :expired")
+    List<Object[]> findExpiringIdRange(@Param("today") LocalDate today, @Param("expired") String expired);
+
+    /**
+     * Marks the cards past their expiry date with id in [{@code fromId}, {@code toId}] as EXPIRED,
+     * bumping their version so concurrent writers holding a stale copy fail and retry.
+     *
+     * @return number of cards marked
+     */
+    @Modifying
+    @Query("UPDATE Card c SET c.status = :expired, c.updatedAt = :now, c.version = c.version + 1 " +
+           "WHERE c.expiryDate < :today AND c.status <> :expired AND c.id BETWEEN :fromId AND :toId")
+    int markExpired(@Param("today") LocalDate today, @Param("expired") String expired, @Param("now") Instant now,
+                    @Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /*
+     * The backfills below work on the raw card_number column, whatever it holds, so they use native
+     * SQL and bypass the converter that encrypts and wraps the column on the entity.
+     */
+    @Query(value = "SELECT id AS id, card_number AS cardNumber FROM cards " +
+                   "WHERE id > :lastId AND card_number_hash IS NULL ORDER BY id", nativeQuery = true)
+    List<CardNumberView> findCardNumbersWithoutHash(@Param("lastId") Long lastId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Card c SET c.cardNumberHash = :hash WHERE c.id = :id")
+    void updateCardNumberHash(@Param("id") Long id, @Param("hash") String hash);
+
+    @Query(value = "SELECT id AS id, card_number AS cardNumber FROM cards " +
+                   "WHERE id > :lastId AND last_four IS NULL ORDER BY id", nativeQuery = true)
+    List<CardNumberView> findCardNumbersWithoutLastFour(@Param("lastId") Long lastId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Card c SET c.cardNumber.lastFour = :lastFour WHERE c.id = :id")
+    void updateCardLastFour(@Param("id") Long id, @Param("lastFour") String lastFour);
+
+    @Query(value = "SELECT id AS id, card_number AS cardNumber FROM cards " +
+                   "WHERE id > :lastId AND card_number NOT LIKE :envelopePrefix ORDER BY id", nativeQuery = true)
+    List<CardNumberView> findCardNumbersOutsideEnvelope(@Param("lastId") Long lastId,
+                                                        @Param("envelopePrefix") String envelopePrefix,
+                                                        Pageable pageable);
+
+    @Modifying
+    @Query(value = "UPDATE cards SET card_number = :cardNumber WHERE id = :id", nativeQuery = true)
+    void updateCardNumber(@Param("id") Long id, @Param("cardNumber") String cardNumber);
 }
\ No newline at end of file
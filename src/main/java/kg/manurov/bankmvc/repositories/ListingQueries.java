@@ -0,0 +1,72 @@
+package kg.manurov.bankmvc.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import lombok.experimental.UtilityClass;
+import org.hibernate.FlushMode;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the JPQL of a listing page through the entity manager. The query strings only vary with the
+ * filters and the sort, so Hibernate keeps one plan per combination, and the rows come back as
+ * projection records that are never managed.
+ */
+@UtilityClass
+class ListingQueries {
+
+    /**
+     * One page of {@code select} ordered by {@code pageable}'s sort; {@code count} is run only
+     * when the total cannot be told from the page itself.
+     *
+     * @param sortable sort properties accepted from callers, mapped to the JPQL path they order by
+     * @throws IllegalArgumentException if the sort names a property missing from {@code sortable}
+     */
+    static <T> Page<T> page(EntityManager entityManager, Class<T> type, String select, String count,
+                            Map<String, Object> parameters, Pageable pageable, Map<String, String> sortable) {
+        TypedQuery<T> query = readOnly(entityManager.createQuery(select + orderBy(pageable.getSort(), sortable), type));
+        parameters.forEach(query::setParameter);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> {
+            TypedQuery<Long> countQuery = readOnly(entityManager.createQuery(count, Long.class));
+            parameters.forEach(countQuery::setParameter);
+            return countQuery.getSingleResult();
+        });
+    }
+
+    /**
+     * Same hints as {@link ReadOnlyQuery}, for queries built by hand: loaded entities are read-only
+     * and the query never flushes the persistence context first.
+     */
+    static <Q extends Query> Q readOnly(Q query) {
+        query.setHint(HibernateHints.HINT_READ_ONLY, true);
+        query.setHint(HibernateHints.HINT_FLUSH_MODE, FlushMode.MANUAL);
+        return query;
+    }
+
+    private static String orderBy(Sort sort, Map<String, String> sortable) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+        List<String> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String path = sortable.get(order.getProperty());
+            if (path == null) {
+                throw new IllegalArgumentException("Cannot sort by " + order.getProperty());
+            }
+            orders.add(path + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        return " ORDER BY " + String.join(", ", orders);
+    }
+}
@@ -0,0 +1,39 @@
+package kg.manurov.bankmvc.repositories;
+
+import kg.manurov.bankmvc.entities.SchedulerLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+
+    /**
+     * Takes over the lock {@code name} if it has expired.
+     *
+     * @return 1 if the lock is now held by {@code lockedBy}, 0 if another node holds it or it does not exist yet
+     */
+    @Modifying
+    @Query("UPDATE SchedulerLock l SET l.lockedUntil = :lockedUntil, l.lockedAt = :now, l.lockedBy = :lockedBy " +
+           "WHERE l.name = :name AND l.lockedUntil <= :now")
+    int acquireExpired(@Param("name") String name, @Param("lockedUntil") Instant lockedUntil,
+                       @Param("now") Instant now, @Param("lockedBy") String lockedBy);
+
+    /**
+     * Creates the lock {@code name} held by {@code lockedBy}; fails with a key violation if it already exists.
+     */
+    @Modifying
+    @Query("INSERT INTO SchedulerLock (name, lockedUntil, lockedAt, lockedBy) " +
+           "VALUES (:name, :lockedUntil, :now, :lockedBy)")
+    void insert(@Param("name") String name, @Param("lockedUntil") Instant lockedUntil,
+                @Param("now") Instant now, @Param("lockedBy") String lockedBy);
+
+    @Modifying
+    @Query("UPDATE SchedulerLock l SET l.lockedUntil = :lockedUntil WHERE l.name = :name AND l.lockedBy = :lockedBy")
+    int release(@Param("name") String name, @Param("lockedUntil") Instant lockedUntil,
+                @Param("lockedBy") String lockedBy);
+}
@@ -0,0 +1,68 @@
+package kg.manurov.bankmvc.repositories;
+
+import kg.manurov.bankmvc.dto.projections.TransactionListView;
+import kg.manurov.bankmvc.dto.transactions.TransactionCursor;
+import kg.manurov.bankmvc.entities.Transaction;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Transactions involving a card or a user, newest first. "Involving" means the card (or one of the
+ * user's cards) is either the sender or the recipient; instead of an OR over both sides, which no
+ * single index can serve, each side is read from its own (card, created_at, id) index and the two
+ * ordered streams are merged with UNION ALL. A transaction on both sides (a top-up, or a transfer
+ * between two cards of the same user) is returned once.
+ * <p>
+ * The admin list of all transactions is read as {@link TransactionListView} rows instead, without
+ * loading any entity. Bulk reads scan the same rows through a stateless session, which keeps no
+ * persistence context at all.
+ */
+public interface TransactionQueryRepository {
+
+    /**
+     * Up to {@code limit} transactions matching the filters, ordered by createdAt then id, both
+     * descending, with both cards fetched.
+     *
+     * @param userId only transactions involving one of this user's cards, ignored if {@code null}
+     * @param cardId only transactions involving this card, ignored if {@code null}
+     * @param from   created at or after this instant, ignored if {@code null}
+     * @param to     created at or before this instant, ignored if {@code null}
+     * @param after  only transactions after this position, from the newest if {@code null}
+     * @throws IllegalArgumentException if neither {@code userId} nor {@code cardId} is given
+     */
+    List<Transaction> findInvolving(Long userId, Long cardId, Instant from, Instant to,
+                                    TransactionCursor after, int limit);
+
+    /**
+     * Up to {@code limit} rows of the admin transaction list, ordered by createdAt then id, both descending.
+     *
+     * @param after only transactions after this position, from the newest if {@code null}
+     */
+    List<TransactionListView> findListPage(TransactionCursor after, int limit);
+
+    /**
+     * Passes every row of the admin transaction list to {@code consumer}, in the order of
+     * {@link #findListPage}, reading them from a forward-only cursor {@code fetchSize} rows at a time.
+     * Memory use does not grow with the number of rows; {@code consumer} must not keep them either.
+     *
+     * @return number of rows scanned
+     */
+    default long scanListRows(int fetchSize, Consumer<? super TransactionListView> consumer) {
+        return scanListRows(null, null, null, null, fetchSize, consumer);
+    }
+
+    /**
+     * Same as {@link #scanListRows(int, Consumer)}, limited to the rows matching the filters of
+     * {@link #findInvolving}; with no filter at all every row is scanned.
+     *
+     * @param userId only transactions involving one of this user's cards, ignored if {@code null}
+     * @param cardId only transactions involving this card, ignored if {@code null}
+     * @param from   created at or after this instant, ignored if {@code null}
+     * @param to     created at or before this instant, ignored if {@code null}
+     * @return number of rows scanned
+     */
+    long scanListRows(Long userId, Long cardId, Instant from, Instant to, int fetchSize,
+                      Consumer<? super TransactionListView> consumer);
+}
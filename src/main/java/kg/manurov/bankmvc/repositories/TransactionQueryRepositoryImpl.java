@@ -0,0 +1,196 @@
+package kg.manurov.bankmvc.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import kg.manurov.bankmvc.dto.projections.TransactionListView;
+import kg.manurov.bankmvc.dto.transactions.TransactionCursor;
+import kg.manurov.bankmvc.entities.Transaction;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.query.SelectionQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Transactional(readOnly = true)
+class TransactionQueryRepositoryImpl implements TransactionQueryRepository {
+    private static final String LIST_SELECT = "SELECT new kg.manurov.bankmvc.dto.projections.TransactionListView(" +
+            "t.id, fc.id, fc.cardNumber.lastFour, tc.id, tc.cardNumber.lastFour, t.amount, t.description, " +
+            "t.status, t.createdAt, t.processedAt, t.errorMessage) " +
+            "FROM Transaction t JOIN t.fromCard fc JOIN t.toCard tc";
+    private static final String LIST_ORDER = " ORDER BY t.createdAt DESC, t.id DESC";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Transaction> findInvolving(Long userId, Long cardId, Instant from, Instant to,
+                                           TransactionCursor after, int limit) {
+        List<Long> userCardIds = userId != null ? ownedCardIds(userId) : null;
+        if (userCardIds != null && userCardIds.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Object> parameters = new HashMap<>();
+        String sql = buildInvolvingQuery(userCardIds, cardId, from, to, after, limit, parameters);
+        Query query = ListingQueries.readOnly(entityManager.createNativeQuery(sql));
+        parameters.forEach(query::setParameter);
+
+        List<Long> ids = new ArrayList<>();
+        for (Object id : query.getResultList()) {
+            ids.add(((Number) id).longValue());
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Transaction> byId = ListingQueries.readOnly(entityManager.createQuery(
+                        "SELECT t FROM Transaction t JOIN FETCH t.fromCard JOIN FETCH t.toCard WHERE t.id IN :ids",
+                        Transaction.class))
+                .setParameter("ids", ids)
+                .getResultList()
+                .stream()
+                .collect(Collectors.toMap(Transaction::getId, Function.identity()));
+        return ids.stream().map(byId::get).toList();
+    }
+
+    private List<Long> ownedCardIds(Long userId) {
+        return entityManager.createQuery("SELECT c.id FROM Card c WHERE c.owner.id = :userId", Long.class)
+                .setParameter("userId", userId)
+                .getResultList();
+    }
+
+    @Override
+    public List<TransactionListView> findListPage(TransactionCursor after, int limit) {
+        TypedQuery<TransactionListView> query;
+        if (after == null) {
+            query = entityManager.createQuery(LIST_SELECT + LIST_ORDER, TransactionListView.class);
+        } else {
+            query = entityManager.createQuery(LIST_SELECT
+                            + " WHERE t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)"
+                            + LIST_ORDER, TransactionListView.class)
+                    .setParameter("createdAt", after.getCreatedAt())
+                    .setParameter("id", after.getId());
+        }
+        return ListingQueries.readOnly(query).setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Runs on a {@link StatelessSession} opened over the connection of the current read-only
+     * transaction, so it costs no extra connection, and the database cursor stays open until the
+     * scan ends.
+     */
+    @Override
+    public long scanListRows(Long userId, Long cardId, Instant from, Instant to, int fetchSize,
+                             Consumer<? super TransactionListView> consumer) {
+        List<String> predicates = new ArrayList<>();
+        Map<String, Object> parameters = new HashMap<>();
+        if (userId != null) {
+            predicates.add("(fc.owner.id = :userId OR tc.owner.id = :userId)");
+            parameters.put("userId", userId);
+        }
+        if (cardId != null) {
+            predicates.add("(fc.id = :cardId OR tc.id = :cardId)");
+            parameters.put("cardId", cardId);
+        }
+        if (from != null) {
+            predicates.add("t.createdAt >= :from");
+            parameters.put("from", from);
+        }
+        if (to != null) {
+            predicates.add("t.createdAt <= :to");
+            parameters.put("to", to);
+        }
+        String jpql = LIST_SELECT
+                      + (predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates))
+                      + LIST_ORDER;
+
+        Session session = entityManager.unwrap(Session.class);
+        return session.doReturningWork(connection -> {
+            long rows = 0;
+            try (StatelessSession statelessSession = session.getSessionFactory().withStatelessOptions()
+                    .connection(connection)
+                    .openStatelessSession()) {
+                SelectionQuery<TransactionListView> query = statelessSession
+                        .createSelectionQuery(jpql, TransactionListView.class)
+                        .setFetchSize(fetchSize);
+                parameters.forEach(query::setParameter);
+                try (ScrollableResults<TransactionListView> results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+                    while (results.next()) {
+                        consumer.accept(results.get());
+                        rows++;
+                    }
+                }
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * Builds the id query: one branch per side, each an ordered, limited read of that side's
+     * (card, created_at, id) index for the given card ids, merged and cut to {@code limit} again.
+     * The second branch skips rows the first one already returns. A user is filtered on through the
+     * ids of their cards, so no branch joins the cards table: for a single card each branch is a
+     * range scan of the index, for several cards it reads those cards' entries and sorts them.
+     *
+     * @param userCardIds ids of the user's cards, not empty, ignored if {@code null}
+     */
+    static String buildInvolvingQuery(List<Long> userCardIds, Long cardId, Instant from, Instant to,
+                                      TransactionCursor after, int limit, Map<String, Object> parameters) {
+        if (userCardIds == null && cardId == null) {
+            throw new IllegalArgumentException("A user or a card is required");
+        }
+
+        List<String> common = new ArrayList<>();
+        if (userCardIds != null && cardId != null) {
+            common.add("(t.from_card_id IN (:userCardIds) OR t.to_card_id IN (:userCardIds))");
+        }
+        if (from != null) {
+            common.add("t.created_at >= :from");
+            parameters.put("from", from);
+        }
+        if (to != null) {
+            common.add("t.created_at <= :to");
+            parameters.put("to", to);
+        }
+        if (after != null) {
+            common.add("(t.created_at, t.id) < (:afterCreatedAt, :afterId)");
+            parameters.put("afterCreatedAt", after.getCreatedAt());
+            parameters.put("afterId", after.getId());
+        }
+        if (userCardIds != null) {
+            parameters.put("userCardIds", userCardIds);
+        }
+        if (cardId != null) {
+            parameters.put("cardId", cardId);
+        }
+        parameters.put("limit", limit);
+
+        String fromSide = cardId != null ? "t.from_card_id = :cardId" : "t.from_card_id IN (:userCardIds)";
+        String toSide = cardId != null
+                ? "t.to_card_id = :cardId AND t.from_card_id <> :cardId"
+                : "t.to_card_id IN (:userCardIds) AND t.from_card_id NOT IN (:userCardIds)";
+
+        return "SELECT u.id FROM ("
+               + branch(fromSide, common) + " UNION ALL " + branch(toSide, common)
+               + ") u ORDER BY u.created_at DESC, u.id DESC LIMIT :limit";
+    }
+
+    private static String branch(String side, List<String> common) {
+        List<String> predicates = new ArrayList<>(common);
+        predicates.add(0, side);
+        return "(SELECT t.id, t.created_at FROM transactions t"
+               + " WHERE " + String.join(" AND ", predicates)
+               + " ORDER BY t.created_at DESC, t.id DESC LIMIT :limit)";
+    }
+}
@@ -0,0 +1,88 @@
+package kg.manurov.bankmvc.repositories;
+
+import kg.manurov.bankmvc.entities.UserTransactionStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Reads and maintains both the all-time and the monthly per-user transaction statistics.
+ */
+@Repository
+public interface TransactionStatsRepository extends JpaRepository<UserTransactionStats, Long> {
+
+    @ReadOnlyQuery
+    @Query("SELECT s.transactionCount FROM UserMonthlyTransactionStats s " +
+           "WHERE s.userId = :userId AND s.monthStart = :monthStart")
+    Optional<Long> findMonthlyTransactionCount(@Param("userId") Long userId, @Param("monthStart") LocalDate monthStart);
+
+    /**
+     * @return 1 if the user's totals were incremented, 0 if the user has no totals row yet
+     */
+    @Modifying
+    @Query("UPDATE UserTransactionStats s SET s.transactionCount = s.transactionCount + :count, " +
+           "s.totalAmount = s.totalAmount + :amount WHERE s.userId = :userId")
+    int increment(@Param("userId") Long userId, @Param("count") Long count, @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query("INSERT INTO UserTransactionStats (userId, transactionCount, totalAmount) VALUES (:userId, :count, :amount)")
+    void insert(@Param("userId") Long userId, @Param("count") Long count, @Param("amount") BigDecimal amount);
+
+    /**
+     * @return 1 if the user's totals for the month were incremented, 0 if there is no row for that month yet
+     */
+    @Modifying
+    @Query("UPDATE UserMonthlyTransactionStats s SET s.transactionCount = s.transactionCount + :count, " +
+           "s.totalAmount = s.totalAmount + :amount WHERE s.userId = :userId AND s.monthStart = :monthStart")
+    int incrementMonthly(@Param("userId") Long userId, @Param("monthStart") LocalDate monthStart,
+                         @Param("count") Long count, @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query("INSERT INTO UserMonthlyTransactionStats (userId, monthStart, transactionCount, totalAmount) " +
+           "VALUES (:userId, :monthStart, :count, :amount)")
+    void insertMonthly(@Param("userId") Long userId, @Param("monthStart") LocalDate monthStart,
+                       @Param("count") Long count, @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query("DELETE FROM UserTransactionStats")
+    void deleteAllTotals();
+
+    @Modifying
+    @Query("DELETE FROM UserMonthlyTransactionStats")
+    void deleteAllMonthly();
+
+    /**
+     * Recomputes every user's totals from the transactions table. A transaction between two cards
+     * of the same user counts once for that user.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO user_transaction_stats (user_id, transaction_count, total_amount)
+        SELECT p.owner_id, COUNT(*), SUM(p.amount)
+        FROM (SELECT t.id, c.owner_id, t.amount FROM transactions t JOIN cards c ON c.id = t.from_card_id
+              UNION
+              SELECT t.id, c.owner_id, t.amount FROM transactions t JOIN cards c ON c.id = t.to_card_id) p
+        GROUP BY p.owner_id""", nativeQuery = true)
+    int rebuildTotals();
+
+    /**
+     * Monthly counterpart of {@link #rebuildTotals()}.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO user_monthly_transaction_stats (user_id, month_start, transaction_count, total_amount)
+        SELECT p.owner_id, p.month_start, COUNT(*), SUM(p.amount)
+        FROM (SELECT t.id, c.owner_id, t.amount, CAST(DATE_TRUNC('MONTH', t.created_at) AS DATE) AS month_start
+              FROM transactions t JOIN cards c ON c.id = t.from_card_id
+              UNION
+              SELECT t.id, c.owner_id, t.amount, CAST(DATE_TRUNC('MONTH', t.created_at) AS DATE) AS month_start
+              FROM transactions t JOIN cards c ON c.id = t.to_card_id) p
+        GROUP BY p.owner_id, p.month_start""", nativeQuery = true)
+    int rebuildMonthly();
+}
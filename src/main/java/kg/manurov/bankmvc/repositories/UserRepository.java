@@ -1,6 +1,9 @@
 package kg.manurov.bankmvc.repositories;
 
 import kg.manurov.bankmvc.entities.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -8,6 +11,11 @@ import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    @ReadOnlyQuery
     Optional<User> findByPhoneNumber(String phoneNumber);
     boolean existsByPhoneNumber(String phoneNumber);
+
+    @ReadOnlyQuery
+    @EntityGraph(attributePaths = "role")
+    Page<User> findAllByRoleName(String roleName, Pageable pageable);
 }
@@ -1,5 +1,6 @@
 package kg.manurov.bankmvc.service;
 
+import kg.manurov.bankmvc.components.OperationTimer;
 import kg.manurov.bankmvc.dto.cardApplication.CardApplicationDto;
 import kg.manurov.bankmvc.dto.cardApplication.CardApplicationRequest;
 import kg.manurov.bankmvc.dto.cards.CardDto;
@@ -30,6 +31,7 @@ public class CardApplicationService {
     private final CardApplicationMapper mapper;
     private final UserRepository userRepository;
     private final CardService cardService;
+    private final OperationTimer operationTimer;
 
 
     public CardApplicationDto createCardApplication(Long userId, CardApplicationRequest request) {
@@ -46,6 +48,10 @@ public class CardApplicationService {
     }
 
     public void approveCardApplication(Long applicationId) {
+        operationTimer.time("bank.card_application.approval", () -> approve(applicationId));
+    }
+
+    private void approve(Long applicationId) {
         log.info("Approving card application with ID: {}", applicationId);
 
         CardApplication application = cardApplicationRepository.findById(applicationId)
@@ -120,8 +126,8 @@ public class CardApplicationService {
 
     @Transactional(readOnly = true)
     public Page<CardApplicationDto> getAllApplications(String status, Pageable pageable) {
-        Specification<CardApplication> cardApplicationSpecification = CardApplicationSpecification.createSpecification(status);
-        return cardApplicationRepository.findAll(cardApplicationSpecification, pageable)
+        String statusFilter = status != null && !status.isBlank() ? status : null;
+        return cardApplicationRepository.findListPage(statusFilter, pageable)
                 .map(mapper::mapToDto);
     }
 }
\ No newline at end of file
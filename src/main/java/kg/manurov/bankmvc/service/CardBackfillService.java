@@ -0,0 +1,118 @@
+package kg.manurov.bankmvc.service;
+
+import kg.manurov.bankmvc.dto.projections.CardNumberView;
+import kg.manurov.bankmvc.entities.CardNumber;
+import kg.manurov.bankmvc.repositories.CardRepository;
+import kg.manurov.bankmvc.util.EncryptionUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CardBackfillService {
+    @Value("${app.backfill.chunk_size}")
+    private Integer chunkSize;
+    private final CardRepository cardRepository;
+    private final EncryptionUtil encryptionUtil;
+    private final LongAdder failedCards = new LongAdder();
+
+    /**
+     * Number of cards any backfill failed on since startup; they are left as they were and picked
+     * up again by the next run.
+     */
+    public long getFailedCards() {
+        return failedCards.sum();
+    }
+
+    /**
+     * Fills card_number_hash for one keyset chunk of cards with id greater than {@code lastId}.
+     *
+     * @return id of the last processed card, or {@code null} when there is nothing left
+     */
+    @Transactional
+    public Long backfillCardNumberHashes(Long lastId) {
+        List<CardNumberView> chunk = cardRepository.findCardNumbersWithoutHash(lastId, PageRequest.of(0, chunkSize));
+        if (chunk.isEmpty()) {
+            return null;
+        }
+
+        for (CardNumberView card : chunk) {
+            try {
+                String plainCardNumber = encryptionUtil.toPlainCardNumber(card.getCardNumber());
+                cardRepository.updateCardNumberHash(card.getId(), encryptionUtil.hashCardNumber(plainCardNumber));
+            } catch (Exception e) {
+                failedCards.increment();
+                log.error("Failed to backfill card number hash for card ID: {}, reason: {}", card.getId(), e.getMessage());
+            }
+        }
+
+        Long chunkLastId = chunk.get(chunk.size() - 1).getId();
+        log.debug("Card number hashes backfilled up to card ID: {}", chunkLastId);
+        return chunkLastId;
+    }
+
+    /**
+     * Fills last_four for one keyset chunk of cards created before the column existed, so masking
+     * never has to decrypt them.
+     *
+     * @return id of the last processed card, or {@code null} when there is nothing left
+     */
+    @Transactional
+    public Long backfillCardLastFour(Long lastId) {
+        List<CardNumberView> chunk = cardRepository.findCardNumbersWithoutLastFour(lastId, PageRequest.of(0, chunkSize));
+        if (chunk.isEmpty()) {
+            return null;
+        }
+
+        for (CardNumberView card : chunk) {
+            try {
+                String plainCardNumber = encryptionUtil.toPlainCardNumber(card.getCardNumber());
+                cardRepository.updateCardLastFour(card.getId(), CardNumber.lastFourOf(plainCardNumber));
+            } catch (Exception e) {
+                failedCards.increment();
+                log.error("Failed to backfill last four digits for card ID: {}, reason: {}", card.getId(), e.getMessage());
+            }
+        }
+
+        Long chunkLastId = chunk.get(chunk.size() - 1).getId();
+        log.debug("Card last four digits backfilled up to card ID: {}", chunkLastId);
+        return chunkLastId;
+    }
+
+    /**
+     * Re-encrypts one keyset chunk of card numbers that are plain, legacy (pre-envelope) or
+     * encrypted with a retired key into the envelope of the current key.
+     *
+     * @return id of the last processed card, or {@code null} when there is nothing left
+     */
+    @Transactional
+    public Long migrateCardNumberEnvelopes(Long lastId) {
+        List<CardNumberView> chunk = cardRepository.findCardNumbersOutsideEnvelope(
+                lastId, encryptionUtil.getEnvelopePrefix() + "%", PageRequest.of(0, chunkSize));
+        if (chunk.isEmpty()) {
+            return null;
+        }
+
+        for (CardNumberView card : chunk) {
+            try {
+                String plainCardNumber = encryptionUtil.toPlainCardNumber(card.getCardNumber());
+                cardRepository.updateCardNumber(card.getId(), encryptionUtil.encryptCardNumber(plainCardNumber));
+            } catch (Exception e) {
+                failedCards.increment();
+                log.error("Failed to re-encrypt card number for card ID: {}, reason: {}", card.getId(), e.getMessage());
+            }
+        }
+
+        Long chunkLastId = chunk.get(chunk.size() - 1).getId();
+        log.debug("Card numbers re-encrypted up to card ID: {}", chunkLastId);
+        return chunkLastId;
+    }
+}
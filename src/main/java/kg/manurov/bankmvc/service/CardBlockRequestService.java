@@ -101,7 +101,7 @@ public class CardBlockRequestService {
 
     @Transactional(readOnly = true)
     public Page<CardBlockRequestDto> getAllBlockRequests(Pageable pageable) {
-        return cardBlockRequestRepository.findAll(pageable)
+        return cardBlockRequestRepository.findListPage(pageable)
                 .map(mapper::mapToDto);
     }
 
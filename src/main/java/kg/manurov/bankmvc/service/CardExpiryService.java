@@ -0,0 +1,111 @@
+package kg.manurov.bankmvc.service;
+
+import kg.manurov.bankmvc.components.OperationTimer;
+import kg.manurov.bankmvc.components.SchedulerLockManager;
+import kg.manurov.bankmvc.enums.CardStatus;
+import kg.manurov.bankmvc.repositories.CardRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Marks cards past their expiry date as EXPIRED. The work is done in the database with UPDATE
+ * statements over consecutive id ranges, each committed on its own, so neither heap nor lock
+ * footprint grows with the number of cards. Cards already EXPIRED are never touched again.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CardExpiryService {
+    private static final String LOCK_NAME = "card-expiry";
+
+    @Value("${app.card_expiry.chunk_size:1000}")
+    private Integer chunkSize;
+    @Value("${app.card_expiry.lock_at_most_for_ms:3600000}")
+    private Long lockAtMostForMs;
+    @Value("${app.card_expiry.lock_at_least_for_ms:60000}")
+    private Long lockAtLeastForMs;
+
+    private final CardRepository cardRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SchedulerLockManager schedulerLockManager;
+    private final OperationTimer operationTimer;
+
+    private final AtomicLong lastRunRows = new AtomicLong();
+    private final AtomicLong lastRunDurationMs = new AtomicLong();
+    private final LongAdder totalRows = new LongAdder();
+    private final LongAdder runs = new LongAdder();
+
+    /**
+     * Nightly trigger; runs on one node of the cluster only.
+     */
+    @Scheduled(cron = "${app.card_expiry.cron:0 0 0 * * *}")
+    public void expireCardsNightly() {
+        schedulerLockManager.runLocked(LOCK_NAME, Duration.ofMillis(lockAtMostForMs),
+                Duration.ofMillis(lockAtLeastForMs), this::expireCards);
+    }
+
+    /**
+     * Marks every card whose expiry date is before today as EXPIRED.
+     *
+     * @return number of cards marked
+     */
+    public long expireCards() {
+        return operationTimer.time("bank.card_expiry.run", this::expireInChunks);
+    }
+
+    private long expireInChunks() {
+        long started = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        String expired = CardStatus.EXPIRED.name();
+
+        List<Object[]> range = cardRepository.findExpiringIdRange(today, expired);
+        Long minId = range.isEmpty() ? null : (Long) range.get(0)[0];
+        Long maxId = range.isEmpty() ? null : (Long) range.get(0)[1];
+
+        long rows = 0;
+        if (minId != null) {
+            for (long fromId = minId; fromId <= maxId; fromId += chunkSize) {
+                long chunkFromId = fromId;
+                long chunkToId = Math.min(fromId + chunkSize - 1, maxId);
+                Integer updated = transactionTemplate.execute(status ->
+                        cardRepository.markExpired(today, expired, Instant.now(), chunkFromId, chunkToId));
+                rows += updated != null ? updated : 0;
+            }
+        }
+
+        long durationMs = Duration.ofNanos(System.nanoTime() - started).toMillis();
+        lastRunRows.set(rows);
+        lastRunDurationMs.set(durationMs);
+        totalRows.add(rows);
+        runs.increment();
+        log.info("Marked {} cards as expired in {} ms", rows, durationMs);
+        return rows;
+    }
+
+    public long getLastRunRows() {
+        return lastRunRows.get();
+    }
+
+    public long getLastRunDurationMs() {
+        return lastRunDurationMs.get();
+    }
+
+    public long getTotalRows() {
+        return totalRows.sum();
+    }
+
+    public long getRuns() {
+        return runs.sum();
+    }
+}
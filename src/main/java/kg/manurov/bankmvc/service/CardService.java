@@ -1,6 +1,7 @@
 package kg.manurov.bankmvc.service;
 
 import jakarta.validation.ValidationException;
+import kg.manurov.bankmvc.components.OperationTimer;
 import kg.manurov.bankmvc.dto.cards.CardDto;
 import kg.manurov.bankmvc.dto.mappers.CardMapper;
 import kg.manurov.bankmvc.entities.Card;
@@ -8,7 +9,6 @@ import kg.manurov.bankmvc.entities.User;
 import kg.manurov.bankmvc.enums.CardStatus;
 import kg.manurov.bankmvc.repositories.CardRepository;
 import kg.manurov.bankmvc.repositories.UserRepository;
-import kg.manurov.bankmvc.service.specifications.CardSpecification;
 import kg.manurov.bankmvc.util.EncryptionUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,13 +17,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.jpa.domain.Specification;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
@@ -39,10 +36,15 @@ public class CardService {
     private final UserRepository userRepository;
     private final EncryptionUtil encryptionUtil;
     private final CardMapper cardMapper;
+    private final OperationTimer operationTimer;
     private static final String CARD_NOT_FOUND = "Card not found!";
 
 
     public CardDto createCard(Long ownerId, String cardType) {
+        return operationTimer.time("bank.card.creation", () -> issueCard(ownerId, cardType));
+    }
+
+    private CardDto issueCard(Long ownerId, String cardType) {
         log.info("Creating card for user with ID: {}", ownerId);
 
         User owner = userRepository.findById(ownerId)
@@ -51,7 +53,8 @@ public class CardService {
 
         log.debug("Creating card with encrypted number for user: {}", owner.getFullName());
 
-        Card card = cardMapper.createEntity(owner, plainCardNumber, cardType);
+        String cardNumberHash = encryptionUtil.hashCardNumber(plainCardNumber);
+        Card card = cardMapper.createEntity(owner, plainCardNumber, cardNumberHash, cardType);
         Card savedCard = cardRepository.save(card);
 
         log.info("Card created with ID: {}", savedCard.getId());
@@ -118,55 +121,34 @@ public class CardService {
         log.info("Card {} blocked", card);
     }
 
-    public void addBalance(Long cardId, BigDecimal amount) {
-        log.info("Adding balance to card with ID: {} amount: {}", cardId, amount);
-        Card card = cardRepository.findById(cardId)
-                .orElseThrow(() -> new NoSuchElementException(CARD_NOT_FOUND));
-
+    /**
+     * Balance changes are applied to a card the caller has already locked, see
+     * {@link CardRepository#findAllByIdForUpdate}; the change is flushed with the caller's transaction.
+     */
+    public void addBalance(Card card, BigDecimal amount) {
+        log.info("Adding balance to card with ID: {} amount: {}", card.getId(), amount);
         card.setBalance(card.getBalance().add(amount));
-        cardRepository.save(card);
-
-        log.info("Card {} balance topped up by {}", card, amount);
-    }
-
-    public void deductBalance(Long cardId, BigDecimal amount) {
-        log.info("Deducting from card with ID: {} amount: {}", cardId, amount);
-        Card card = cardRepository.findById(cardId)
-                .orElseThrow(() -> new NoSuchElementException("Card not found"));
-
-        card.setBalance(card.getBalance().subtract(amount));
-        cardRepository.save(card);
-
-        log.info("Deducted {} from card {}", amount, card);
+        log.info("Card {} balance topped up by {}", card.getId(), amount);
     }
 
-
-    @Transactional
-    @Scheduled(cron = "0 0 0 * * *")
-    public void updateExpiredCards() {
-        log.info("Updating expired cards status");
-
-        List<Card> expiredCards = cardRepository.findExpiredCards(LocalDate.now());
-
-        for (Card card : expiredCards) {
-            if (!Objects.equals(card.getStatus(), CardStatus.EXPIRED.name())) {
-                card.setStatus(CardStatus.EXPIRED.name());
-                cardRepository.save(card);
-                log.info("Card {} marked as expired", card);
-            }
+    public void deductBalance(Card card, BigDecimal amount) {
+        log.info("Deducting from card with ID: {} amount: {}", card.getId(), amount);
+        if (card.getBalance().compareTo(amount) < 0) {
+            throw new IllegalArgumentException("Insufficient funds on card " + card.getId());
         }
-
-        log.info("Updated {} expired cards", expiredCards.size());
+        card.setBalance(card.getBalance().subtract(amount));
+        log.info("Deducted {} from card {}", amount, card.getId());
     }
 
 
+    @Transactional(readOnly = true)
     public Page<CardDto> getAllCards(String balanceTo, String balanceFrom, String status, String sort, int page) {
         BigDecimal from = null;
         BigDecimal to = null;
         if (balanceFrom != null && !balanceFrom.isBlank()) from = BigDecimal.valueOf(Double.parseDouble(balanceFrom));
         if (balanceTo != null && !balanceTo.isBlank()) to = BigDecimal.valueOf(Double.parseDouble(balanceTo));
-        Specification<Card> cardSpecification = CardSpecification.createSpecification(status, from, to);
+        if (status != null && status.isBlank()) status = null;
         Pageable pageable = PageRequest.of(page, size, Sort.by(sort));
-        return cardRepository.findAll(cardSpecification, pageable).map(cardMapper::toDto);
+        return cardRepository.findListPage(status, from, to, pageable).map(cardMapper::toDto);
     }
 }
\ No newline at end of file
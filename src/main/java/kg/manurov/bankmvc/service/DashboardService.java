@@ -0,0 +1,300 @@
+package kg.manurov.bankmvc.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import kg.manurov.bankmvc.components.DashboardMetrics;
+import kg.manurov.bankmvc.dto.CursorPage;
+import kg.manurov.bankmvc.dto.cards.CardDto;
+import kg.manurov.bankmvc.dto.transactions.TransactionDto;
+import kg.manurov.bankmvc.dto.users.UserDto;
+import kg.manurov.bankmvc.enums.CardStatus;
+import kg.manurov.bankmvc.util.RequestOperations;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Builds the models of the profile, user details and transaction history pages by running their
+ * independent reads at the same time, so a page takes as long as its slowest read rather than
+ * their sum. Every read runs in its own read-only transaction on a pool thread, with the caller's
+ * security context, and counts towards the caller's {@link RequestOperations}.
+ * <p>
+ * The pool holds {@code app.dashboard.pool_size} threads and {@code app.dashboard.queue_capacity}
+ * waiting reads; beyond that the caller runs the read itself. Every read holds a connection, so a
+ * single page runs at most {@code app.dashboard.page_concurrency} of its reads at once, and always
+ * fewer than {@code spring.datasource.hikari.maximum-pool-size}; the next read starts when one
+ * returns. A page waits at most {@code app.dashboard.deadline_ms} in total: a figure that is late
+ * or fails is replaced by its fallback and the page is marked {@code partial}, while the page's main
+ * content is never replaced and its errors propagate as before.
+ * <p>
+ * A late read is cancelled: one that has not started never runs, and a running one is interrupted.
+ * Interrupting does not abort a statement waiting on the database, so every read's transaction also
+ * times out at the page deadline, rounded up to whole seconds; a late read keeps its connection and
+ * its page permit until then at the latest.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardService {
+    private final CardService cardService;
+    private final TransactionService transactionService;
+    private final UserService userService;
+    private final DashboardMetrics metrics;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.dashboard.pool_size:16}")
+    private Integer poolSize;
+
+    @Value("${app.dashboard.queue_capacity:256}")
+    private Integer queueCapacity;
+
+    @Value("${app.dashboard.deadline_ms:2000}")
+    private Long deadlineMs;
+
+    @Value("${app.dashboard.page_concurrency:3}")
+    private Integer pageConcurrency;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private Integer connectionPoolSize;
+
+    private ThreadPoolExecutor pool;
+    private Executor executor;
+
+    @PostConstruct
+    void init() {
+        this.pool = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("dashboard-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = new DelegatingSecurityContextExecutor(task -> pool.execute(RequestOperations.propagate(task)));
+        this.pageConcurrency = Math.max(1, Math.min(pageConcurrency, connectionPoolSize - 1));
+        log.info("Dashboard executor initialized, threads: {}, queue: {}, reads per page: {}, deadline: {}ms",
+                poolSize, queueCapacity, pageConcurrency, deadlineMs);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    public Map<String, Object> profile(Long userId) {
+        Composition page = new Composition("profile");
+        Fragment<List<CardDto>> cards = page.fork("cards", () -> cardService.getUserCards(userId));
+        Fragment<Integer> monthly = page.fork("monthlyTransactions",
+                () -> transactionService.getMonthlyTransactionCount(userId));
+
+        Map<String, Object> model = cardAttributes(page.join(cards, List.of()));
+        model.put("monthlyTransactions", page.join(monthly, 0));
+        model.put("partial", page.isPartial());
+        return model;
+    }
+
+    public Map<String, Object> userDetails(Long userId) {
+        Composition page = new Composition("userDetails");
+        Fragment<UserDto> user = page.fork("user", () -> userService.getUserById(userId));
+        Fragment<Integer> monthly = page.fork("monthlyTransactions",
+                () -> transactionService.getMonthlyTransactionCount(userId));
+
+        UserDto userDto = page.require(user);
+        List<CardDto> cards = userDto.getCards() != null ? userDto.getCards() : List.of();
+        Map<String, Object> model = cardAttributes(cards);
+        model.put("user", userDto);
+        model.put("cards", userDto.getCards());
+        model.put("monthlyTransactions", page.join(monthly, 0));
+        model.put("partial", page.isPartial());
+        return model;
+    }
+
+    public Map<String, Object> transactionHistory(Long userId, LocalDate dateFrom, LocalDate dateTo,
+                                                  Long cardId, String cursor, int size) {
+        Composition page = new Composition("transactionHistory");
+        Fragment<CursorPage<TransactionDto>> transactions = page.fork("transactions",
+                () -> transactionService.getTransactionHistory(userId, dateFrom, dateTo, cardId, cursor, size));
+        Fragment<List<CardDto>> cards = page.fork("cards", () -> cardService.getUserCards(userId));
+        Fragment<Integer> total = page.fork("totalTransactions",
+                () -> transactionService.getMonthlyTransactionByUserId(userId));
+        Fragment<Integer> monthly = page.fork("monthlyTransactions",
+                () -> transactionService.getMonthlyTransactionCount(userId));
+        Fragment<BigDecimal> amount = page.fork("totalAmount", () -> transactionService.getTotTransAmount(userId));
+
+        Map<String, Object> model = new LinkedHashMap<>();
+        model.put("transactions", page.require(transactions));
+        model.put("userCards", page.join(cards, List.of()));
+        model.put("totalTransactions", page.join(total, 0));
+        model.put("monthlyTransactions", page.join(monthly, 0));
+        model.put("totalAmount", page.join(amount, BigDecimal.ZERO));
+        model.put("partial", page.isPartial());
+        return model;
+    }
+
+    private Map<String, Object> cardAttributes(List<CardDto> cards) {
+        Map<String, Object> model = new LinkedHashMap<>();
+        model.put("cards", cards);
+        model.put("totalBalance", cards.stream()
+                .map(CardDto::getBalance)
+                .filter(Objects::nonNull)
+                .reduce(BigDecimal.ZERO, BigDecimal::add));
+        model.put("activeCards", cards.stream()
+                .filter(card -> CardStatus.ACTIVE.name().equals(card.getStatus()))
+                .toList());
+        return model;
+    }
+
+    private record Fragment<T>(String name, Future<T> future) {
+    }
+
+    /**
+     * One page being composed; all its fragments share the deadline taken when it was created and
+     * the page's {@code page_concurrency} permits.
+     */
+    private final class Composition {
+        private final String page;
+        private final long deadline;
+        private final Semaphore permits = new Semaphore(pageConcurrency);
+        private final List<Fragment<?>> fragments = new ArrayList<>();
+        private boolean partial;
+
+        Composition(String page) {
+            this.page = page;
+            this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        }
+
+        /**
+         * Starts the read once one of the page's permits is free; a read that gets no permit before
+         * the deadline never starts and is treated as late. The permit is given back when the read
+         * returns, not when it is cancelled.
+         */
+        <T> Fragment<T> fork(String fragment, Supplier<T> read) {
+            String name = page + "." + fragment;
+            FutureTask<T> task = new FutureTask<>(() -> {
+                metrics.readStarted();
+                try {
+                    return read(name, read);
+                } finally {
+                    metrics.readFinished();
+                    permits.release();
+                }
+            });
+            if (acquirePermit()) {
+                executor.execute(task);
+            } else {
+                task.cancel(false);
+            }
+            Fragment<T> result = new Fragment<>(name, task);
+            fragments.add(result);
+            return result;
+        }
+
+        /**
+         * The fragment's value, or {@code fallback} if it failed or is not ready by the deadline, in
+         * which case it is cancelled.
+         */
+        <T> T join(Fragment<T> fragment, T fallback) {
+            try {
+                return fragment.future().get(remainingNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException | CancellationException e) {
+                fragment.future().cancel(true);
+                log.warn("Fragment {} missed the {}ms deadline, rendering without it", fragment.name(), deadlineMs);
+            } catch (ExecutionException e) {
+                log.warn("Fragment {} failed, rendering without it: {}", fragment.name(), e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                fragment.future().cancel(true);
+                Thread.currentThread().interrupt();
+            }
+            metrics.recordFallback(fragment.name());
+            partial = true;
+            return fallback;
+        }
+
+        /**
+         * The fragment's value; its exception is rethrown as if the read had run on the caller.
+         */
+        <T> T require(Fragment<T> fragment) {
+            try {
+                return fragment.future().get(remainingNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException | CancellationException e) {
+                cancelAll();
+                throw new QueryTimeoutException("Page " + page + " was not ready within " + deadlineMs + "ms");
+            } catch (ExecutionException e) {
+                cancelAll();
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                cancelAll();
+                Thread.currentThread().interrupt();
+                throw new QueryTimeoutException("Interrupted while composing page " + page);
+            }
+        }
+
+        boolean isPartial() {
+            return partial;
+        }
+
+        /**
+         * Runs the read in a read-only transaction that times out at the page deadline.
+         */
+        private <T> T read(String name, Supplier<T> read) {
+            long remaining = remainingNanos();
+            if (remaining == 0) {
+                throw new QueryTimeoutException("Fragment " + name + " started after the page deadline");
+            }
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            transaction.setTimeout((int) TimeUnit.NANOSECONDS.toSeconds(remaining + TimeUnit.SECONDS.toNanos(1) - 1));
+
+            long started = System.nanoTime();
+            try {
+                return transaction.execute(status -> read.get());
+            } finally {
+                metrics.recordTiming(name, System.nanoTime() - started);
+            }
+        }
+
+        /**
+         * Stops the page's remaining reads once the page has failed and none of them will be rendered.
+         */
+        private void cancelAll() {
+            fragments.forEach(fragment -> fragment.future().cancel(true));
+        }
+
+        private boolean acquirePermit() {
+            try {
+                return permits.tryAcquire(remainingNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private long remainingNanos() {
+            return Math.max(0, deadline - System.nanoTime());
+        }
+    }
+}
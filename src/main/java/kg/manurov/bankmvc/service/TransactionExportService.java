@@ -0,0 +1,166 @@
+package kg.manurov.bankmvc.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kg.manurov.bankmvc.dto.projections.TransactionListView;
+import kg.manurov.bankmvc.entities.CardNumber;
+import kg.manurov.bankmvc.enums.ExportFormat;
+import kg.manurov.bankmvc.repositories.TransactionRepo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+
+/**
+ * Writes transactions as CSV or NDJSON straight from a forward-only database cursor: rows are read
+ * {@code app.export.fetch_size} at a time as {@link TransactionListView} records, without loading
+ * any entity, and written out one by one, so memory use is the same for ten rows and ten million.
+ * Card numbers are masked from their stored last four digits; nothing is decrypted. The filters are
+ * those of the transaction history.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionExportService {
+    private static final String CSV_HEADER = "id,from_card_id,from_card_number,to_card_id,to_card_number,"
+            + "amount,description,status,created_at,processed_at,error_message";
+
+    private final TransactionRepo transactionRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.export.fetch_size:1000}")
+    private Integer fetchSize;
+
+    /**
+     * @param userId only transactions involving one of this user's cards, all users if {@code null}
+     * @param cardId only transactions involving this card, ignored if {@code null}
+     * @return number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long export(Long userId, Long cardId, LocalDate dateFrom, LocalDate dateTo,
+                       ExportFormat format, OutputStream out) throws IOException {
+        Instant from = dateFrom != null ? dateFrom.atStartOfDay().toInstant(ZoneOffset.UTC) : null;
+        Instant to = dateTo != null ? dateTo.atStartOfDay().toInstant(ZoneOffset.UTC) : null;
+
+        long started = System.nanoTime();
+        long rows;
+        try {
+            rows = switch (format) {
+                case CSV -> exportCsv(userId, cardId, from, to, out);
+                case NDJSON -> exportNdjson(userId, cardId, from, to, out);
+            };
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.info("Exported {} transactions as {} in {}ms (user: {}, card: {})", rows, format,
+                (System.nanoTime() - started) / 1_000_000, userId, cardId);
+        return rows;
+    }
+
+    private long exportCsv(Long userId, Long cardId, Instant from, Instant to, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        long rows = scan(userId, cardId, from, to, row -> {
+            try {
+                writer.write(csvRow(row));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+        return rows;
+    }
+
+    private long exportNdjson(Long userId, Long cardId, Instant from, Instant to, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        long rows = scan(userId, cardId, from, to, row -> {
+            try {
+                writeJson(generator, row);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.flush();
+        return rows;
+    }
+
+    private long scan(Long userId, Long cardId, Instant from, Instant to, Consumer<TransactionListView> consumer) {
+        return transactionRepository.scanListRows(userId, cardId, from, to, fetchSize, consumer);
+    }
+
+    static String csvRow(TransactionListView row) {
+        StringBuilder line = new StringBuilder(160);
+        line.append(row.id()).append(',')
+                .append(row.fromCardId()).append(',')
+                .append(CardNumber.mask(row.fromCardLastFour())).append(',')
+                .append(row.toCardId()).append(',')
+                .append(CardNumber.mask(row.toCardLastFour())).append(',')
+                .append(plain(row.amount())).append(',');
+        csvText(line, row.description()).append(',')
+                .append(row.status()).append(',')
+                .append(text(row.createdAt())).append(',')
+                .append(text(row.processedAt())).append(',');
+        csvText(line, row.errorMessage()).append('\n');
+        return line.toString();
+    }
+
+    /**
+     * Quotes a free-text field when it needs it, and defuses values a spreadsheet would run as a
+     * formula by prefixing them with an apostrophe.
+     */
+    private static StringBuilder csvText(StringBuilder line, String value) {
+        if (value == null || value.isEmpty()) {
+            return line;
+        }
+        String text = "=+-@\t\r".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return line.append(text);
+        }
+        return line.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+
+    private static void writeJson(JsonGenerator generator, TransactionListView row) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", row.id());
+        generator.writeNumberField("fromCardId", row.fromCardId());
+        generator.writeStringField("fromCardNumber", CardNumber.mask(row.fromCardLastFour()));
+        generator.writeNumberField("toCardId", row.toCardId());
+        generator.writeStringField("toCardNumber", CardNumber.mask(row.toCardLastFour()));
+        generator.writeNumberField("amount", row.amount());
+        generator.writeStringField("description", row.description());
+        generator.writeStringField("status", row.status());
+        generator.writeStringField("createdAt", iso(row.createdAt()));
+        generator.writeStringField("processedAt", iso(row.processedAt()));
+        generator.writeStringField("errorMessage", row.errorMessage());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private static String plain(BigDecimal amount) {
+        return amount != null ? amount.toPlainString() : "";
+    }
+
+    private static String text(Instant instant) {
+        return instant != null ? instant.toString() : "";
+    }
+
+    private static String iso(Instant instant) {
+        return instant != null ? instant.toString() : null;
+    }
+}
@@ -1,128 +1,304 @@
 package kg.manurov.bankmvc.service;
 
+import kg.manurov.bankmvc.components.CardLockManager;
+import kg.manurov.bankmvc.components.OperationTimer;
+import jakarta.validation.ValidationException;
+import kg.manurov.bankmvc.dto.CursorPage;
 import kg.manurov.bankmvc.dto.mappers.TransactionMapper;
+import kg.manurov.bankmvc.dto.projections.TransactionListView;
+import kg.manurov.bankmvc.dto.transactions.TransactionCursor;
 import kg.manurov.bankmvc.dto.transactions.TransactionDto;
 import kg.manurov.bankmvc.dto.transactions.TransferRequest;
+import kg.manurov.bankmvc.dto.transactions.TransferResult;
 import kg.manurov.bankmvc.entities.Card;
 import kg.manurov.bankmvc.entities.Transaction;
 import kg.manurov.bankmvc.enums.TransactionStatus;
 import kg.manurov.bankmvc.repositories.CardRepository;
 import kg.manurov.bankmvc.repositories.TransactionRepo;
-import kg.manurov.bankmvc.service.specifications.TransactionSpecification;
 import kg.manurov.bankmvc.util.AuthenticatedUserUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
-import org.springframework.data.jpa.domain.Specification;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.*;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class TransactionService {
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final String TRANSFER_TIMER = "bank.transfer";
+    private static final String REFUND_TIMER = "bank.refund";
 
     private final TransactionRepo transactionRepository;
     private final AuthenticatedUserUtil userUtil;
     private final CardRepository cardRepository;
     private final CardService cardService;
     private final TransactionMapper transactionMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final CardLockManager cardLockManager;
+    private final TransactionStatsService transactionStatsService;
+    private final OperationTimer operationTimer;
+    @Value("${app.transfer.max_attempts}")
+    private Integer maxAttempts;
 
-    @Transactional
+    /**
+     * Moves money between two cards. Both cards are loaded once, locked lowest id first, and the
+     * transfer is validated and applied against that snapshot (see {@link TransferContext}), so
+     * concurrent transfers cannot lose updates. Transfers over the same card are first serialized
+     * in memory by {@link CardLockManager}, so a hot card does not pile up waiters on its row lock.
+     * Lock or version conflicts roll back and retry in a fresh transaction up to
+     * {@code app.transfer.max_attempts} times. A rejected transfer throws {@link ValidationException},
+     * one whose cards stay busy past the lock timeout {@link CannotAcquireLockException} so the client
+     * can retry; one that fails for any other reason is recorded as FAILED in its own transaction.
+     */
     public Long transferBetweenUserCards(TransferRequest request) {
-        Card fromCard = cardRepository.findById(request.getFromCardId())
-                .orElseThrow(() -> new NoSuchElementException("Sender card not found"));
-
-        Card toCard = cardRepository.findById(request.getToCardId())
-                .orElseThrow(() -> new NoSuchElementException("Recipient card not found"));
+        return operationTimer.time(TRANSFER_TIMER, () -> transferOrRecordFailure(request), "type", "single");
+    }
 
+    private Long transferOrRecordFailure(TransferRequest request) {
+        Long userId = userUtil.getCurrentUserId();
         try {
-            Transaction transaction = transactionMapper.toEntity(fromCard, toCard, request);
+            return cardLockManager.withLocks(() -> executeWithRetry("Transfer", () -> transfer(request, userId)),
+                    request.getFromCardId(), request.getToCardId());
+        } catch (ValidationException e) {
+            log.warn("Transfer rejected: {}", e.getMessage());
+            throw e;
+        } catch (CannotAcquireLockException e) {
+            log.warn("Transfer rejected, card busy: {}", e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            log.error("Error during transfer: {}", e.getMessage(), e);
+            recordFailedTransfer(request, e.getMessage());
+            throw new RuntimeException("Error during transfer: " + e.getMessage());
+        }
+    }
+
+    private Long transfer(TransferRequest request, Long userId) {
+        TransferContext context = TransferContext.lock(cardRepository, userId,
+                Stream.of(request.getFromCardId(), request.getToCardId()).collect(Collectors.toSet()));
+        String error = context.validate(request);
+        if (error != null) {
+            throw new ValidationException(error);
+        }
+        context.apply(request);
+        context.writeBalances();
+
+        log.info("Transfer by user {} from card {} to card {} amount {}",
+                userId, request.getFromCardId(), request.getToCardId(), request.getAmount());
+        Transaction savedTransaction = transactionRepository.save(transactionMapper.toEntity(
+                context.getCard(request.getFromCardId()), context.getCard(request.getToCardId()), request));
+        transactionStatsService.record(List.of(savedTransaction));
 
-            if (!request.getFromCardId().equals(request.getToCardId())) {
-                cardService.deductBalance(request.getFromCardId(), request.getAmount());
+        log.info("Transfer completed successfully. Transaction ID: {}", savedTransaction.getId());
+        return savedTransaction.getId();
+    }
+
+    /**
+     * Applies a batch of transfers in one transaction. All involved cards are locked with a single
+     * query, every transfer is validated against the balances left by the ones before it, and each
+     * card gets one balance update with its aggregated delta. Successful transfers are inserted in
+     * JDBC batches; rejected ones are reported in the result and change nothing.
+     */
+    public List<TransferResult> transferBatch(List<TransferRequest> requests) {
+        return operationTimer.time(TRANSFER_TIMER, () -> lockAndTransferBatch(requests), "type", "batch");
+    }
+
+    private List<TransferResult> lockAndTransferBatch(List<TransferRequest> requests) {
+        Long userId = userUtil.getCurrentUserId();
+        Long[] cardIds = requests.stream()
+                .filter(Objects::nonNull)
+                .flatMap(request -> Stream.of(request.getFromCardId(), request.getToCardId()))
+                .filter(Objects::nonNull)
+                .distinct()
+                .toArray(Long[]::new);
+        return cardLockManager.withLocks(
+                () -> executeWithRetry("Batch transfer", () -> transferBatch(requests, userId, Set.of(cardIds))), cardIds);
+    }
+
+    private List<TransferResult> transferBatch(List<TransferRequest> requests, Long userId, Set<Long> cardIds) {
+        TransferContext context = TransferContext.lock(cardRepository, userId, cardIds);
+
+        Transaction[] transactions = new Transaction[requests.size()];
+        String[] errors = new String[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            TransferRequest request = requests.get(i);
+            errors[i] = request != null ? context.validate(request) : "Transfer is empty";
+            if (errors[i] != null) {
+                continue;
             }
-            cardService.addBalance(request.getToCardId(), request.getAmount());
+            context.apply(request);
+            transactions[i] = transactionMapper.toEntity(
+                    context.getCard(request.getFromCardId()), context.getCard(request.getToCardId()), request);
+        }
 
-            log.info("Transfer from user {} from card {} to card {} amount {}",
-                    fromCard.getOwner().getFullName(), request.getFromCardId(), request.getToCardId(), request.getAmount());
-            Transaction savedTransaction = transactionRepository.save(transaction);
+        context.writeBalances();
+        transactionStatsService.record(
+                transactionRepository.saveAll(Arrays.stream(transactions).filter(Objects::nonNull).toList()));
 
-            log.info("Transfer completed successfully. Transaction ID: {}", savedTransaction.getId());
-            return savedTransaction.getId();
+        List<TransferResult> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            results.add(transactions[i] != null
+                    ? TransferResult.builder().index(i).transactionId(transactions[i].getId())
+                    .status(TransactionStatus.SUCCESS.name()).build()
+                    : TransferResult.builder().index(i).status(TransactionStatus.FAILED.name())
+                    .errorMessage(errors[i]).build());
+        }
+        log.info("Batch transfer by user {} completed: {} of {} transfers succeeded",
+                userId, Arrays.stream(transactions).filter(Objects::nonNull).count(), requests.size());
+        return results;
+    }
 
+    private void recordFailedTransfer(TransferRequest request, String error) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Optional<Card> fromCard = cardRepository.findById(request.getFromCardId());
+                Optional<Card> toCard = cardRepository.findById(request.getToCardId());
+                if (fromCard.isPresent() && toCard.isPresent()) {
+                    transactionStatsService.record(List.of(transactionRepository.save(transactionMapper
+                            .toEntityWithError(fromCard.get(), toCard.get(), request, error))));
+                }
+            });
         } catch (Exception e) {
-            log.error("Error during transfer: {}", e.getMessage(), e);
-            Transaction failedTransaction = transactionMapper
-                    .toEntityWithError(toCard, fromCard, request, e.getMessage());
-            transactionRepository.save(failedTransaction);
+            log.warn("Failed to record failed transfer: {}", e.getMessage());
+        }
+    }
 
-            throw new RuntimeException("Error during transfer: " + e.getMessage());
+    private Map<Long, Card> lockCards(Long... cardIds) {
+        return cardRepository.findAllByIdForUpdate(Arrays.stream(cardIds).distinct().toList()).stream()
+                .collect(Collectors.toMap(Card::getId, Function.identity()));
+    }
+
+    private <T> T executeWithRetry(String operation, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.warn("{} conflict on attempt {}, retrying: {}", operation, attempt, e.getMessage());
+            }
         }
     }
 
+    /**
+     * One page of all transactions, newest first, starting after {@code cursor} (from the start
+     * when {@code null}).
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<TransactionDto> getAllTransactions(String cursor, int size) {
+        int pageSize = historyPageSize(size);
+        TransactionCursor after = cursor == null || cursor.isBlank() ? null : TransactionCursor.decode(cursor);
 
-    public Page<TransactionDto> getAllTransactions(Pageable pageable) {
-        return transactionRepository.findAll(pageable).map(transactionMapper::toDto);
+        List<TransactionListView> rows = transactionRepository.findListPage(after, pageSize + 1);
+        List<TransactionListView> content = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+        TransactionCursor next = rows.size() > pageSize ? TransactionCursor.after(content.get(pageSize - 1)) : null;
+        return toCursorPage(content.stream().map(transactionMapper::toDto).toList(), next);
     }
 
     public void refundTransaction(Long id) {
-        Transaction transaction = transactionRepository.findById(id).orElseThrow(NoSuchElementException::new);
+        operationTimer.time(REFUND_TIMER, () -> {
+            Transaction transaction = transactionRepository.findById(id).orElseThrow(NoSuchElementException::new);
+            cardLockManager.withLocks(() -> executeWithRetry("Refund", () -> {
+                refund(id);
+                return id;
+            }), transaction.getFromCard().getId(), transaction.getToCard().getId());
+        });
+    }
+
+    private void refund(Long id) {
+        Transaction transaction = transactionRepository.findWithLockById(id).orElseThrow(NoSuchElementException::new);
+        Long fromCardId = transaction.getFromCard().getId();
+        Long toCardId = transaction.getToCard().getId();
+        Map<Long, Card> cards = lockCards(fromCardId, toCardId);
         if (!transaction.getStatus().equals(TransactionStatus.SUCCESS.name())) {
             throw new IllegalArgumentException("The transaction is already processed!");
         }
 
-        cardService.addBalance(transaction.getFromCard().getId(), transaction.getAmount());
-        cardService.deductBalance(transaction.getToCard().getId(), transaction.getAmount());
+        if (!fromCardId.equals(toCardId)) {
+            cardService.deductBalance(cards.get(toCardId), transaction.getAmount());
+            cardService.addBalance(cards.get(fromCardId), transaction.getAmount());
+        } else {
+            cardService.deductBalance(cards.get(toCardId), transaction.getAmount());
+        }
         transaction.setStatus(TransactionStatus.REFUNDED.name());
         transactionRepository.save(transaction);
     }
 
+    @Transactional(readOnly = true)
     public int getMonthlyTransactionCount(Long id) {
-        YearMonth month = YearMonth.now();
-        Instant start = month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
-        Instant end = month.atEndOfMonth().atTime(LocalTime.MAX).toInstant(ZoneOffset.UTC);
-
-        return transactionRepository.countTransactionsByUserIdAndDateRange(id, start, end);
+        return transactionStatsService.getMonthlyTransactionCount(id, YearMonth.now(ZoneOffset.UTC));
     }
 
+    @Transactional(readOnly = true)
     public int getMonthlyTransactionByUserId(Long id) {
-        return transactionRepository.countTransactionsByUserId(id);
+        return transactionStatsService.getTransactionCount(id);
     }
 
+    @Transactional(readOnly = true)
     public List<TransactionDto> getTransactionsByCardId(Long cardId) {
         log.info("Getting last 10 transactions for card ID: {}", cardId);
-        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "createdAt"));
-
-        Page<Transaction> transactions = transactionRepository.findByCardId(cardId, pageable);
-
-        return transactions.getContent()
+        return transactionRepository.findInvolving(null, cardId, null, null, null, 10)
                 .stream()
                 .map(transactionMapper::toDto)
                 .toList();
     }
 
-    public Page<TransactionDto> getTransactionByUserId(Pageable pageable, Long userId, LocalDate dateFrom, LocalDate dateTo, Long cardId) {
+    /**
+     * One page of the user's transaction history, newest first, starting after {@code cursor}
+     * (from the start when {@code null}).
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<TransactionDto> getTransactionHistory(Long userId, LocalDate dateFrom, LocalDate dateTo,
+                                                            Long cardId, String cursor, int size) {
         Instant from = dateFrom != null ? dateFrom.atStartOfDay().toInstant(ZoneOffset.UTC) : null;
         Instant to = dateTo != null ? dateTo.atStartOfDay().toInstant(ZoneOffset.UTC) : null;
 
-        Specification<Transaction> spec = TransactionSpecification.createSpecification(userId, from, to, cardId);
-        Page<Transaction> transactions = transactionRepository.findAll(spec, pageable);
-        return transactions.map(transactionMapper::toDto);
+        int pageSize = historyPageSize(size);
+        TransactionCursor after = cursor == null || cursor.isBlank() ? null : TransactionCursor.decode(cursor);
+        List<Transaction> rows = transactionRepository.findInvolving(userId, cardId, from, to, after, pageSize + 1);
+        List<Transaction> content = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+        TransactionCursor next = rows.size() > pageSize ? TransactionCursor.after(content.get(pageSize - 1)) : null;
+        return toCursorPage(content.stream().map(transactionMapper::toDto).toList(), next);
+    }
+
+    private int historyPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+    }
+
+    /**
+     * Keyset pagination over (createdAt, id) descending: the next page seeks past the last row of
+     * this one, so page 10,000 costs the same as page 1, and no total count is computed.
+     */
+    private CursorPage<TransactionDto> toCursorPage(List<TransactionDto> content, TransactionCursor next) {
+        return CursorPage.<TransactionDto>builder()
+                .content(content)
+                .nextCursor(next != null ? next.encode() : null)
+                .hasNext(next != null)
+                .build();
     }
 
+    @Transactional(readOnly = true)
     public BigDecimal getTotTransAmount(Long userId) {
-        return transactionRepository.getTotalAmountByUserId(userId);
+        return transactionStatsService.getTotalAmount(userId);
     }
 }
\ No newline at end of file
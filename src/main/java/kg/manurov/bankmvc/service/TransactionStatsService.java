@@ -0,0 +1,162 @@
+package kg.manurov.bankmvc.service;
+
+import kg.manurov.bankmvc.components.OperationTimer;
+import kg.manurov.bankmvc.components.SchedulerLockManager;
+import kg.manurov.bankmvc.entities.Transaction;
+import kg.manurov.bankmvc.entities.UserTransactionStats;
+import kg.manurov.bankmvc.repositories.TransactionStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Per-user transaction count and amount, overall and per month. The numbers are maintained
+ * incrementally by {@link #record(Collection)} in the same transaction that inserts the
+ * transactions, so reading them is a primary-key lookup. {@link #rebuild()} recomputes them from
+ * scratch for backfill and repair.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionStatsService {
+    private static final String REBUILD_LOCK_NAME = "transaction-stats-rebuild";
+
+    @Value("${app.transaction_stats.lock_at_most_for_ms:3600000}")
+    private Long lockAtMostForMs;
+
+    private final TransactionStatsRepository statsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SchedulerLockManager schedulerLockManager;
+    private final OperationTimer operationTimer;
+
+    @Transactional(readOnly = true)
+    public int getTransactionCount(Long userId) {
+        return statsRepository.findById(userId)
+                .map(UserTransactionStats::getTransactionCount)
+                .map(Long::intValue)
+                .orElse(0);
+    }
+
+    /**
+     * @return total amount of the user's transactions, or {@code null} if there are none
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalAmount(Long userId) {
+        return statsRepository.findById(userId)
+                .map(UserTransactionStats::getTotalAmount)
+                .orElse(null);
+    }
+
+    @Transactional(readOnly = true)
+    public int getMonthlyTransactionCount(Long userId, YearMonth month) {
+        return statsRepository.findMonthlyTransactionCount(userId, month.atDay(1))
+                .map(Long::intValue)
+                .orElse(0);
+    }
+
+    /**
+     * Adds freshly inserted transactions to the statistics of the owners of both cards. Must run in
+     * the transaction that inserts them.
+     *
+     * @throws ConcurrencyFailureException if another transaction created the same statistics row
+     *                                     first; the caller should retry
+     */
+    public void record(Collection<Transaction> transactions) {
+        Map<Long, Delta> totals = new HashMap<>();
+        Map<UserMonth, Delta> monthly = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            Delta delta = new Delta(1, transaction.getAmount());
+            LocalDate monthStart = monthStartOf(transaction.getCreatedAt());
+            Stream.of(transaction.getFromCard().getOwner().getId(), transaction.getToCard().getOwner().getId())
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .forEach(userId -> {
+                        totals.merge(userId, delta, Delta::plus);
+                        monthly.merge(new UserMonth(userId, monthStart), delta, Delta::plus);
+                    });
+        }
+
+        try {
+            totals.forEach((userId, delta) -> {
+                if (statsRepository.increment(userId, delta.count(), delta.amount()) == 0) {
+                    statsRepository.insert(userId, delta.count(), delta.amount());
+                }
+            });
+            monthly.forEach((key, delta) -> {
+                if (statsRepository.incrementMonthly(key.userId(), key.monthStart(), delta.count(), delta.amount()) == 0) {
+                    statsRepository.insertMonthly(key.userId(), key.monthStart(), delta.count(), delta.amount());
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw new ConcurrencyFailureException("Transaction statistics row was created concurrently", e);
+        }
+    }
+
+    /**
+     * Weekly repair run; runs on one node of the cluster only.
+     */
+    @Scheduled(cron = "${app.transaction_stats.rebuild_cron:0 30 3 * * SUN}")
+    public void rebuildWeekly() {
+        schedulerLockManager.runLocked(REBUILD_LOCK_NAME, Duration.ofMillis(lockAtMostForMs), Duration.ZERO, this::rebuild);
+    }
+
+    /**
+     * Rebuilds the statistics when they have never been computed, e.g. right after the table was
+     * introduced on a database that already has transactions.
+     */
+    public void rebuildIfEmpty() {
+        if (statsRepository.count() == 0) {
+            schedulerLockManager.runLocked(REBUILD_LOCK_NAME, Duration.ofMillis(lockAtMostForMs), Duration.ZERO, this::rebuild);
+        }
+    }
+
+    /**
+     * Recomputes all statistics from the transactions table in a single transaction.
+     */
+    public void rebuild() {
+        operationTimer.time("bank.transaction_stats.rebuild", this::rebuildAll);
+    }
+
+    private void rebuildAll() {
+        long started = System.nanoTime();
+        Integer users = transactionTemplate.execute(status -> {
+            statsRepository.deleteAllTotals();
+            statsRepository.deleteAllMonthly();
+            statsRepository.rebuildMonthly();
+            return statsRepository.rebuildTotals();
+        });
+        log.info("Transaction statistics rebuilt for {} users in {} ms",
+                users, Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    private LocalDate monthStartOf(Instant createdAt) {
+        return YearMonth.from((createdAt != null ? createdAt : Instant.now()).atZone(ZoneOffset.UTC)).atDay(1);
+    }
+
+    private record UserMonth(Long userId, LocalDate monthStart) {
+    }
+
+    private record Delta(long count, BigDecimal amount) {
+        Delta plus(Delta other) {
+            return new Delta(count + other.count, amount.add(other.amount));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package kg.manurov.bankmvc.service;
+
+import kg.manurov.bankmvc.dto.transactions.TransferRequest;
+import kg.manurov.bankmvc.entities.Card;
+import kg.manurov.bankmvc.enums.CardStatus;
+import kg.manurov.bankmvc.repositories.CardRepository;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cards of one transfer request (or one batch of them), loaded once with a single locking query.
+ * Ownership, status and funds are validated against this snapshot, and the balance changes and
+ * transaction rows are applied to the same managed entities, so no card is read twice.
+ * <p>
+ * Balances are tracked per card while transfers are applied and written back once by
+ * {@link #writeBalances()}; in a batch each transfer therefore sees the balances left by the
+ * ones before it.
+ */
+class TransferContext {
+    private final Map<Long, Card> cards;
+    private final Map<Long, BigDecimal> balances = new HashMap<>();
+    private final Long userId;
+
+    private TransferContext(Map<Long, Card> cards, Long userId) {
+        this.cards = cards;
+        this.userId = userId;
+        cards.forEach((id, card) -> balances.put(id, card.getBalance()));
+    }
+
+    /**
+     * Locks the given cards for update, lowest id first, on behalf of user {@code userId}.
+     */
+    static TransferContext lock(CardRepository cardRepository, Long userId, Set<Long> cardIds) {
+        Map<Long, Card> cards = cardRepository.findAllByIdForUpdate(cardIds).stream()
+                .collect(Collectors.toMap(Card::getId, Function.identity()));
+        return new TransferContext(cards, userId);
+    }
+
+    Card getCard(Long cardId) {
+        return cardId != null ? cards.get(cardId) : null;
+    }
+
+    /**
+     * Returns the reason {@code request} is rejected, or {@code null} if it may be applied.
+     */
+    String validate(TransferRequest request) {
+        if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            return "Transfer amount must be positive";
+        }
+        Card fromCard = getCard(request.getFromCardId());
+        Card toCard = getCard(request.getToCardId());
+        if (fromCard == null) {
+            return "Sender card not found";
+        }
+        if (toCard == null) {
+            return "Recipient card not found";
+        }
+        if (!Objects.equals(fromCard.getOwner().getId(), userId)) {
+            return "Sender card does not belong to user";
+        }
+        if (!Objects.equals(toCard.getOwner().getId(), userId)) {
+            return "Recipient card does not belong to user";
+        }
+        String cardError = validateCard(fromCard, "sender");
+        if (cardError == null) {
+            cardError = validateCard(toCard, "recipient");
+        }
+        if (cardError != null) {
+            return cardError;
+        }
+        if (!isTopUp(request) && balances.get(fromCard.getId()).compareTo(request.getAmount()) < 0) {
+            return "Insufficient funds on sender card";
+        }
+        return null;
+    }
+
+    /**
+     * Applies an already validated transfer to the tracked balances.
+     */
+    void apply(TransferRequest request) {
+        if (!isTopUp(request)) {
+            balances.merge(request.getFromCardId(), request.getAmount().negate(), BigDecimal::add);
+        }
+        balances.merge(request.getToCardId(), request.getAmount(), BigDecimal::add);
+    }
+
+    /**
+     * Writes the tracked balances back to the cards; each changed card is updated once on flush.
+     */
+    void writeBalances() {
+        balances.forEach((id, balance) -> cards.get(id).setBalance(balance));
+    }
+
+    private boolean isTopUp(TransferRequest request) {
+        return request.getFromCardId().equals(request.getToCardId());
+    }
+
+    private String validateCard(Card card, String cardRole) {
+        if (CardStatus.BLOCKED.name().equals(card.getStatus())) {
+            return "The " + cardRole + " card is blocked";
+        }
+        if (CardStatus.EXPIRED.name().equals(card.getStatus())) {
+            return "The " + cardRole + " card has expired";
+        }
+        return null;
+    }
+}
@@ -1,6 +1,9 @@
 package kg.manurov.bankmvc.service;
 
+import kg.manurov.bankmvc.components.AccessTokenService;
+import kg.manurov.bankmvc.components.UserDetailsCache;
 import kg.manurov.bankmvc.dto.mappers.UserMapper;
+import kg.manurov.bankmvc.dto.projections.CardSummaryView;
 import kg.manurov.bankmvc.dto.users.SignUpRequest;
 import kg.manurov.bankmvc.dto.users.UserDto;
 import kg.manurov.bankmvc.entities.User;
@@ -9,7 +12,6 @@ import kg.manurov.bankmvc.repositories.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -17,16 +19,22 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserService implements UserDetailsService {
+    private static final String USER_ROLE = "USER";
+
     private final UserRepository repository;
     private final CardRepository cardRepository;
     private final UserMapper userMapper;
+    private final UserDetailsCache userDetailsCache;
+    private final AccessTokenService accessTokenService;
 
     @Transactional
     public User create(SignUpRequest request) {
@@ -40,14 +48,16 @@ public class UserService implements UserDetailsService {
         log.info("Getting all users, page: {}, size: {}",
                 pageable.getPageNumber(), pageable.getPageSize());
 
-        Page<User> page = repository.findAll(pageable);
-
-        List<UserDto> filtered = page.getContent().stream()
-                .filter(u -> "USER".equals(u.getRole().getName()))
-                .map(userMapper::toDto)
-                .toList();
+        Page<User> page = repository.findAllByRoleName(USER_ROLE, pageable);
+        if (page.isEmpty()) {
+            return page.map(user -> userMapper.toListDto(user, null));
+        }
 
-        return new PageImpl<>(filtered, pageable, filtered.size());
+        Map<Long, CardSummaryView> summaries = cardRepository
+                .summarizeByOwnerIds(page.map(User::getId).getContent())
+                .stream()
+                .collect(Collectors.toMap(CardSummaryView::getOwnerId, Function.identity()));
+        return page.map(user -> userMapper.toListDto(user, summaries.get(user.getId())));
     }
 
     @Transactional(readOnly = true)
@@ -70,6 +80,8 @@ public class UserService implements UserDetailsService {
         user.setEnabled(!user.getEnabled());
 
         User updatedUser = repository.save(user);
+        userDetailsCache.evict(updatedUser.getPhoneNumber());
+        accessTokenService.revoke(updatedUser.getPhoneNumber());
         log.info("User {} status changed to: {}",
                 updatedUser.getFullName(), updatedUser.getEnabled() ? "active" : "blocked");
 
@@ -89,10 +101,13 @@ public class UserService implements UserDetailsService {
         }
 
         repository.delete(user);
+        userDetailsCache.evict(user.getPhoneNumber());
+        accessTokenService.revoke(user.getPhoneNumber());
         log.info("User {} successfully deleted", user.getFullName());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String phoneNumber) throws UsernameNotFoundException {
         return repository.findByPhoneNumber(phoneNumber)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
@@ -48,6 +48,14 @@ public class AuthenticatedUserUtil {
         return false;
     }
 
+    /**
+     * Ownership check for data that already carries the owner id, e.g. mapped DTOs: compares it
+     * with the principal's id and never touches the database.
+     */
+    public boolean isCurrentUserOwner(Long ownerId) {
+        return ownerId != null && ownerId.equals(getCurrentUserId());
+    }
+
     public Long getCurrentUserId() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth != null && auth.getPrincipal() instanceof User user) {
@@ -0,0 +1,272 @@
+package kg.manurov.bankmvc.util;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AES/HMAC primitives behind {@link EncryptionUtil}. Keys are derived once at startup and
+ * {@link Cipher}/{@link Mac} instances are reused through small bounded pools, so the hot
+ * path does no key derivation and no provider lookups.
+ * <p>
+ * Ciphertexts are written as an envelope {@code enc:<keyId>:<base64(iv + data)>}. The tag
+ * lets callers tell ciphertext from a plain card number with a prefix check, and the key id
+ * selects the key on decryption, so keys can be rotated: the current key encrypts, keys listed
+ * as {@code id:key} pairs in {@code app.encryption.retired_keys} only decrypt. Values without the tag are legacy
+ * ciphertexts from before the envelope and are read with the current key.
+ */
+@Slf4j
+@Component
+public class CryptoEngine {
+    private static final String ALGORITHM = "AES";
+    private static final String TRANSFORMATION = "AES/CBC/PKCS5Padding";
+    private static final String HASH_ALGORITHM = "HmacSHA256";
+    private static final String HASH_KEY_PREFIX = "card-number-index:";
+    private static final int IV_LENGTH = 16;
+    private static final String ENVELOPE_TAG = "enc:";
+    private static final char ENVELOPE_SEPARATOR = ':';
+
+    @Value("${app.encryption.key}")
+    private String encryptionKey;
+
+    @Value("${app.encryption.key_id:1}")
+    private String keyId;
+
+    @Value("${app.encryption.index_key:${app.encryption.key}}")
+    private String indexKey;
+
+    @Value("${app.encryption.retired_keys:}")
+    private List<String> retiredKeys;
+
+    @Value("${app.encryption.pool_size:32}")
+    private Integer poolSize;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, SecretKey> secretKeys = new HashMap<>();
+    private SecretKey secretKey;
+    private String envelopePrefix;
+    private SecretKey hashKey;
+    private BlockingQueue<Cipher> ciphers;
+    private BlockingQueue<Mac> macs;
+    private final LongAdder encryptions = new LongAdder();
+    private final LongAdder decryptions = new LongAdder();
+    private final LongAdder hmacs = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        if (encryptionKey == null || encryptionKey.trim().isEmpty()) {
+            throw new IllegalStateException("Encryption key is not configured");
+        }
+        for (String retiredKey : retiredKeys) {
+            int separator = retiredKey.indexOf(ENVELOPE_SEPARATOR);
+            if (separator <= 0) {
+                throw new IllegalStateException("Retired encryption keys must be configured as id:key pairs");
+            }
+            secretKeys.put(retiredKey.substring(0, separator).trim(), deriveAesKey(retiredKey.substring(separator + 1)));
+        }
+        this.secretKey = deriveAesKey(encryptionKey);
+        this.secretKeys.put(keyId, secretKey);
+        this.envelopePrefix = ENVELOPE_TAG + keyId + ENVELOPE_SEPARATOR;
+        this.hashKey = new SecretKeySpec(sha256(HASH_KEY_PREFIX + indexKey), HASH_ALGORITHM);
+        this.ciphers = new ArrayBlockingQueue<>(poolSize);
+        this.macs = new ArrayBlockingQueue<>(poolSize);
+        log.info("Crypto engine initialized, key id: {}, known keys: {}, pool size: {}",
+                keyId, secretKeys.size(), poolSize);
+    }
+
+    public boolean isEnvelope(String value) {
+        return value.startsWith(ENVELOPE_TAG);
+    }
+
+    /**
+     * Prefix of ciphertexts produced with the current key; anything else is due for re-encryption.
+     */
+    public String getEnvelopePrefix() {
+        return envelopePrefix;
+    }
+
+    public String encrypt(String plainText) {
+        Cipher cipher = borrowCipher();
+        try {
+            return encrypt(cipher, plainText);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Error encrypting value", e);
+        } finally {
+            ciphers.offer(cipher);
+        }
+    }
+
+    public String decrypt(String encrypted) {
+        Cipher cipher = borrowCipher();
+        try {
+            return decrypt(cipher, encrypted);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Error decrypting value", e);
+        } finally {
+            ciphers.offer(cipher);
+        }
+    }
+
+    public List<String> encryptAll(List<String> plainTexts) {
+        Cipher cipher = borrowCipher();
+        try {
+            List<String> result = new ArrayList<>(plainTexts.size());
+            for (String plainText : plainTexts) {
+                result.add(encrypt(cipher, plainText));
+            }
+            return result;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Error encrypting values", e);
+        } finally {
+            ciphers.offer(cipher);
+        }
+    }
+
+    /**
+     * Decrypts a whole page of values with a single cipher. Values that cannot be decrypted
+     * are returned as {@code null} so one broken row does not fail the whole page.
+     */
+    public List<String> decryptAll(List<String> encryptedValues) {
+        Cipher cipher = borrowCipher();
+        try {
+            List<String> result = new ArrayList<>(encryptedValues.size());
+            for (String encrypted : encryptedValues) {
+                try {
+                    result.add(decrypt(cipher, encrypted));
+                } catch (GeneralSecurityException | IllegalArgumentException e) {
+                    log.warn("Error decrypting value: {}", e.getMessage());
+                    result.add(null);
+                }
+            }
+            return result;
+        } finally {
+            ciphers.offer(cipher);
+        }
+    }
+
+    public String hmac(String value) {
+        count(hmacs);
+        Mac mac = macs.poll();
+        try {
+            if (mac == null) {
+                mac = Mac.getInstance(HASH_ALGORITHM);
+                mac.init(hashKey);
+            }
+            return HexFormat.of().formatHex(mac.doFinal(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Error hashing value", e);
+        } finally {
+            if (mac != null) {
+                macs.offer(mac);
+            }
+        }
+    }
+
+    /**
+     * Values encrypted since startup, one per value for bulk calls; likewise for the two below.
+     */
+    public long getEncryptions() {
+        return encryptions.sum();
+    }
+
+    public long getDecryptions() {
+        return decryptions.sum();
+    }
+
+    public long getHmacs() {
+        return hmacs.sum();
+    }
+
+    private static void count(LongAdder operations) {
+        operations.increment();
+        RequestOperations.countCrypto(1);
+    }
+
+    private String encrypt(Cipher cipher, String plainText) throws GeneralSecurityException {
+        count(encryptions);
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+
+        cipher.init(Cipher.ENCRYPT_MODE, secretKey, new IvParameterSpec(iv));
+        byte[] encryptedBytes = cipher.doFinal(plainText.getBytes(StandardCharsets.UTF_8));
+
+        byte[] encryptedWithIv = new byte[IV_LENGTH + encryptedBytes.length];
+        System.arraycopy(iv, 0, encryptedWithIv, 0, IV_LENGTH);
+        System.arraycopy(encryptedBytes, 0, encryptedWithIv, IV_LENGTH, encryptedBytes.length);
+        return envelopePrefix + Base64.getEncoder().encodeToString(encryptedWithIv);
+    }
+
+    private String decrypt(Cipher cipher, String encrypted) throws GeneralSecurityException {
+        count(decryptions);
+        SecretKey key = secretKey;
+        String payload = encrypted;
+        if (isEnvelope(encrypted)) {
+            int separator = encrypted.indexOf(ENVELOPE_SEPARATOR, ENVELOPE_TAG.length());
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed ciphertext envelope");
+            }
+            String envelopeKeyId = encrypted.substring(ENVELOPE_TAG.length(), separator);
+            key = secretKeys.get(envelopeKeyId);
+            if (key == null) {
+                throw new IllegalArgumentException("Unknown encryption key id: " + envelopeKeyId);
+            }
+            payload = encrypted.substring(separator + 1);
+        }
+
+        byte[] encryptedWithIv = Base64.getDecoder().decode(payload);
+        if (encryptedWithIv.length < IV_LENGTH) {
+            throw new IllegalArgumentException("Insufficient length of encrypted data");
+        }
+
+        cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(encryptedWithIv, 0, IV_LENGTH));
+        byte[] decryptedBytes = cipher.doFinal(encryptedWithIv, IV_LENGTH, encryptedWithIv.length - IV_LENGTH);
+        return new String(decryptedBytes, StandardCharsets.UTF_8);
+    }
+
+    private Cipher borrowCipher() {
+        Cipher cipher = ciphers.poll();
+        if (cipher != null) {
+            return cipher;
+        }
+        try {
+            return Cipher.getInstance(TRANSFORMATION);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cipher " + TRANSFORMATION + " is not available", e);
+        }
+    }
+
+    private static SecretKey deriveAesKey(String key) {
+        byte[] keyBytes = sha256(key);
+        byte[] aesKey = new byte[16];
+        System.arraycopy(keyBytes, 0, aesKey, 0, 16);
+        return new SecretKeySpec(aesKey, ALGORITHM);
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
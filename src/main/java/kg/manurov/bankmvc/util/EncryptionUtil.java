@@ -1,20 +1,13 @@
 package kg.manurov.bankmvc.util;
 
+import kg.manurov.bankmvc.entities.CardNumber;
 import kg.manurov.bankmvc.repositories.CardRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.Cipher;
-import javax.crypto.SecretKey;
-import javax.crypto.spec.IvParameterSpec;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
 import java.security.SecureRandom;
-import java.util.Arrays;
-import java.util.Base64;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
@@ -24,35 +17,13 @@ import java.util.Base64;
 public class EncryptionUtil {
 
     private final CardRepository cardRepository;
-    private static final String ALGORITHM = "AES";
-    private static final String TRANSFORMATION = "AES/CBC/PKCS5Padding";
-    private static final int IV_LENGTH = 16;
-
-    @Value("${app.encryption.key}")
-    private String encryptionKey;
+    private final CryptoEngine cryptoEngine;
+    private final SecureRandom random = new SecureRandom();
+    private static final int MAX_CARD_NUMBER_LENGTH = 19;
 
     public String encryptCardNumber(String cardNumber) {
         try {
-            log.debug("Starting card number encryption");
-
-            SecretKey secretKey = generateKey();
-            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
-
-            byte[] iv = new byte[IV_LENGTH];
-            new SecureRandom().nextBytes(iv);
-            IvParameterSpec ivSpec = new IvParameterSpec(iv);
-
-            cipher.init(Cipher.ENCRYPT_MODE, secretKey, ivSpec);
-            byte[] encryptedBytes = cipher.doFinal(cardNumber.getBytes(StandardCharsets.UTF_8));
-
-            byte[] encryptedWithIv = new byte[IV_LENGTH + encryptedBytes.length];
-            System.arraycopy(iv, 0, encryptedWithIv, 0, IV_LENGTH);
-            System.arraycopy(encryptedBytes, 0, encryptedWithIv, IV_LENGTH, encryptedBytes.length);
-
-            String result = Base64.getEncoder().encodeToString(encryptedWithIv);
-            log.debug("Card number successfully encrypted, result length: {}", result.length());
-
-            return result;
+            return cryptoEngine.encrypt(cardNumber);
         } catch (Exception e) {
             log.error("Error encrypting card number: {}", e.getMessage(), e);
             throw new RuntimeException("Error encrypting card number", e);
@@ -61,51 +32,66 @@ public class EncryptionUtil {
 
     public String decryptCardNumber(String encryptedCardNumber) {
         try {
-            log.debug("Starting card number decryption");
-
-            SecretKey secretKey = generateKey();
-            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            return cryptoEngine.decrypt(encryptedCardNumber);
+        } catch (Exception e) {
+            log.error("Error decrypting card number: {}", e.getMessage(), e);
+            throw new RuntimeException("Error decrypting card number", e);
+        }
+    }
 
-            byte[] encryptedWithIv = Base64.getDecoder().decode(encryptedCardNumber);
+    /**
+     * Decrypts a stored card number on demand; the plain value is memoized on the instance only.
+     */
+    public String revealCardNumber(CardNumber cardNumber) {
+        return cardNumber.reveal(this::toPlainCardNumber);
+    }
 
-            if (encryptedWithIv.length < IV_LENGTH) {
-                throw new IllegalArgumentException("Insufficient length of encrypted data");
-            }
+    public String toPlainCardNumber(String storedCardNumber) {
+        return isEncrypted(storedCardNumber) ? decryptCardNumber(storedCardNumber) : storedCardNumber;
+    }
 
-            byte[] iv = Arrays.copyOfRange(encryptedWithIv, 0, IV_LENGTH);
-            IvParameterSpec ivSpec = new IvParameterSpec(iv);
+    public List<String> encryptCardNumbers(List<String> cardNumbers) {
+        return cryptoEngine.encryptAll(cardNumbers);
+    }
 
-            byte[] encryptedBytes = Arrays.copyOfRange(encryptedWithIv, IV_LENGTH, encryptedWithIv.length);
+    /**
+     * Bulk variant of {@link #decryptCardNumber(String)}; entries that fail to decrypt come back as {@code null}.
+     */
+    public List<String> decryptCardNumbers(List<String> encryptedCardNumbers) {
+        return cryptoEngine.decryptAll(encryptedCardNumbers);
+    }
 
-            cipher.init(Cipher.DECRYPT_MODE, secretKey, ivSpec);
-            byte[] decryptedBytes = cipher.doFinal(encryptedBytes);
+    /**
+     * Tells stored ciphertext from a plain card number without regular expressions: enveloped
+     * values carry a tag, and legacy ciphertexts are always longer than any card number.
+     */
+    public boolean isEncrypted(String cardNumber) {
+        return cryptoEngine.isEnvelope(cardNumber) || cardNumber.length() > MAX_CARD_NUMBER_LENGTH;
+    }
 
-            String result = new String(decryptedBytes, StandardCharsets.UTF_8);
-            log.debug("Card number successfully decrypted");
+    public String getEnvelopePrefix() {
+        return cryptoEngine.getEnvelopePrefix();
+    }
 
-            return result;
+    /**
+     * Keyed blind index of a plain card number. Unlike {@link #encryptCardNumber(String)}
+     * the result is deterministic, so it can be stored in an indexed column and used
+     * for existence checks and lookups without decrypting anything.
+     */
+    public String hashCardNumber(String cardNumber) {
+        try {
+            return cryptoEngine.hmac(cardNumber);
         } catch (Exception e) {
-            log.error("Error decrypting card number: {}", e.getMessage(), e);
-            throw new RuntimeException("Error decrypting card number", e);
+            log.error("Error hashing card number: {}", e.getMessage(), e);
+            throw new RuntimeException("Error hashing card number", e);
         }
     }
 
     public String maskCardNumber(String cardNumber) {
-        if (cardNumber == null || cardNumber.length() < 4) {
-            return "****";
-        }
-
-        String cleanNumber = cardNumber.replaceAll("\\s", "");
-        if (cleanNumber.length() < 4) {
-            return "****";
-        }
-
-        String lastFour = cleanNumber.substring(cleanNumber.length() - 4);
-        return "**** **** **** " + lastFour;
+        return CardNumber.mask(CardNumber.lastFourOf(cardNumber));
     }
 
     public String generateCardNumber() {
-        SecureRandom random = new SecureRandom();
         String cardNumber;
         int attempts = 0;
         final int maxAttempts = 100;
@@ -132,9 +118,7 @@ public class EncryptionUtil {
                 continue;
             }
 
-            String encryptedCardNumber = encryptCardNumber(cardNumber);
-
-            if (!cardRepository.existsByCardNumber(encryptedCardNumber)) {
+            if (!cardRepository.existsByCardNumberHash(hashCardNumber(cardNumber))) {
                 log.debug("Generated unique card number in {} attempts", attempts);
                 break;
             }
@@ -155,23 +139,6 @@ public class EncryptionUtil {
         return isLuhnValid(cleanNumber);
     }
 
-    private SecretKey generateKey() {
-        try {
-            if (encryptionKey == null || encryptionKey.trim().isEmpty()) {
-                throw new IllegalStateException("Encryption key is not configured");
-            }
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] keyBytes = digest.digest(encryptionKey.getBytes(StandardCharsets.UTF_8));
-            byte[] key = new byte[16];
-            System.arraycopy(keyBytes, 0, key, 0, 16);
-
-            return new SecretKeySpec(key, ALGORITHM);
-        } catch (Exception e) {
-            log.error("Error generating encryption key: {}", e.getMessage(), e);
-            throw new RuntimeException("Error generating key", e);
-        }
-    }
-
     private int calculateLuhnCheckDigit(String number) {
         int sum = 0;
         boolean alternate = true;
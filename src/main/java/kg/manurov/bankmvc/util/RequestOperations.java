@@ -0,0 +1,84 @@
+package kg.manurov.bankmvc.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts expensive operations done on behalf of the current request, so their number per request
+ * can be recorded once it completes. The tally is bound to the request thread; work handed to a
+ * pool for the same request carries it along through {@link #propagate(Runnable)}. Counting
+ * outside of a request does nothing.
+ */
+public final class RequestOperations {
+    private static final ThreadLocal<Tally> CURRENT = new ThreadLocal<>();
+
+    private RequestOperations() {
+    }
+
+    /**
+     * Starts a tally for the current thread; pass the returned tally to {@link #close(Tally)}.
+     */
+    public static Tally open() {
+        Tally tally = new Tally();
+        CURRENT.set(tally);
+        return tally;
+    }
+
+    public static void close(Tally tally) {
+        if (CURRENT.get() == tally) {
+            CURRENT.remove();
+        }
+    }
+
+    public static void countCrypto(int operations) {
+        Tally tally = CURRENT.get();
+        if (tally != null) {
+            tally.crypto.add(operations);
+        }
+    }
+
+    public static void countCardMasking() {
+        Tally tally = CURRENT.get();
+        if (tally != null) {
+            tally.cardMasking.increment();
+        }
+    }
+
+    /**
+     * Wraps {@code task} so that it counts towards the tally of the thread submitting it.
+     */
+    public static Runnable propagate(Runnable task) {
+        Tally tally = CURRENT.get();
+        if (tally == null) {
+            return task;
+        }
+        return () -> {
+            Tally previous = CURRENT.get();
+            CURRENT.set(tally);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    public static final class Tally {
+        private final LongAdder crypto = new LongAdder();
+        private final LongAdder cardMasking = new LongAdder();
+
+        private Tally() {
+        }
+
+        public long getCrypto() {
+            return crypto.sum();
+        }
+
+        public long getCardMasking() {
+            return cardMasking.sum();
+        }
+    }
+}
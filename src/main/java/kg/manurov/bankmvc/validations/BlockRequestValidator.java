@@ -30,7 +30,7 @@ public class BlockRequestValidator implements ConstraintValidator<ValidBlockRequ
 
         List<CardBlockRequest> request = cardBlockRequestRepository.findByCardIdAndStatus(id, CardRequestStatus.PENDING.name());
 
-        if (!userUtil.isCardOwner(userUtil.getCurrentUserId(), userUtil.getCurrentUsername())) {
+        if (!userUtil.isCurrentUserOwner(card.getOwner().getId())) {
             context.buildConstraintViolationWithTemplate("No access to this card")
                     .addConstraintViolation();
             return false;
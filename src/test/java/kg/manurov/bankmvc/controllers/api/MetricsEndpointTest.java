@@ -0,0 +1,138 @@
+package kg.manurov.bankmvc.controllers.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kg.manurov.bankmvc.custom.TestData;
+import kg.manurov.bankmvc.custom.WithMockCustomUser;
+import kg.manurov.bankmvc.dto.cardApplication.CardApplicationRequest;
+import kg.manurov.bankmvc.dto.transactions.TransferRequest;
+import kg.manurov.bankmvc.entities.Card;
+import kg.manurov.bankmvc.entities.User;
+import kg.manurov.bankmvc.repositories.CardRepository;
+import kg.manurov.bankmvc.repositories.TransactionRepo;
+import kg.manurov.bankmvc.service.CardApplicationService;
+import kg.manurov.bankmvc.service.CardExpiryService;
+import kg.manurov.bankmvc.service.TransactionService;
+import kg.manurov.bankmvc.util.AuthenticatedUserUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs every timed operation once, plus a page that decrypts and masks card numbers, and checks
+ * that the Prometheus scrape publishes the metric names the shipped dashboard queries. Health is
+ * open, the scrape is for admins only. Exporters are off in tests unless observability is
+ * requested, which needs a separate context, so the test gets its own database.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:metrics_endpoint;MODE=PostgreSQL;"
+        + "DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;INIT=CREATE SCHEMA IF NOT EXISTS public")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@DirtiesContext
+class MetricsEndpointTest {
+    private static final String PROMETHEUS = "/actuator/prometheus";
+    private static final List<String> METRICS = List.of(
+            "bank_transfer_seconds_count{",
+            "bank_refund_seconds_count{",
+            "bank_card_creation_seconds_count{",
+            "bank_card_application_approval_seconds_count{",
+            "bank_card_expiry_run_seconds_count{",
+            "bank_card_expiry_cards_total{",
+            "bank_crypto_operations_total{",
+            "bank_card_masking_invocations_total{",
+            "bank_card_lock_wait_seconds_total{",
+            "bank_card_lock_acquisitions_total{",
+            "bank_request_crypto_operations_count{",
+            "bank_request_card_masking_invocations_count{",
+            "bank_dashboard_fragment_seconds_count{",
+            "hikaricp_connections_acquire_seconds_count{",
+            "http_server_requests_seconds_count{");
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private TransactionRepo transactionRepository;
+    @Autowired
+    private CardApplicationService cardApplicationService;
+    @Autowired
+    private CardExpiryService cardExpiryService;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private AuthenticatedUserUtil userUtil;
+    @Autowired
+    private TestData testData;
+
+    @Test
+    @WithMockCustomUser(phoneNumber = "+7(700)5559101")
+    @DisplayName("Scrape publishes the hot-path meters with outcome and route tags")
+    void prometheus_ShouldPublishHotPathMetrics() throws Exception {
+        User owner = userUtil.getCurrentUser();
+        Card from = testData.card(owner, new BigDecimal("100.00"));
+        Card to = testData.card(owner, new BigDecimal("100.00"));
+        cardRepository.save(testData.newCard(owner).setExpiryDate(LocalDate.now().minusDays(1)));
+
+        mockMvc.perform(post("/api/v1/transactions/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TransferRequest.builder()
+                                .fromCardId(from.getId())
+                                .toCardId(to.getId())
+                                .amount(new BigDecimal("25.00"))
+                                .description("Metrics")
+                                .build())))
+                .andExpect(status().isOk());
+        Long transactionId = transactionRepository.findAll().stream()
+                .filter(transaction -> transaction.getFromCard().getId().equals(from.getId()))
+                .findFirst().orElseThrow().getId();
+        transactionService.refundTransaction(transactionId);
+        Long applicationId = cardApplicationService.createCardApplication(owner.getId(),
+                new CardApplicationRequest("DEBIT", "Metrics")).getId();
+        cardApplicationService.approveCardApplication(applicationId);
+        cardExpiryService.expireCards();
+        mockMvc.perform(get("/profile"))
+                .andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get(PROMETHEUS).with(user("+7(700)5559102").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        for (String metric : METRICS) {
+            assertTrue(scrape.contains(metric), () -> metric + " is missing from the scrape");
+        }
+        assertTrue(scrape.matches("(?s).*bank_transfer_seconds_count\\{[^}]*outcome=\"success\"[^}]*type=\"single\".*"));
+        assertTrue(scrape.matches("(?s).*bank_request_card_masking_invocations_count\\{[^}]*uri=\"/profile\".*"));
+        assertTrue(scrape.matches("(?s).*bank_crypto_operations_total\\{[^}]*operation=\"decrypt\"[^}]*} [1-9].*"));
+    }
+
+    @Test
+    @DisplayName("Health is public, the scrape needs an admin")
+    void actuator_ShouldRequireAdminExceptHealth() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(PROMETHEUS))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get(PROMETHEUS).with(user("+7(700)5559103").roles("USER")))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,189 @@
+package kg.manurov.bankmvc.controllers.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kg.manurov.bankmvc.custom.TestData;
+import kg.manurov.bankmvc.dto.users.TokenRequest;
+import kg.manurov.bankmvc.entities.User;
+import kg.manurov.bankmvc.service.UserService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * REST requests authenticated with an access token and with HTTP Basic, both through the stateless
+ * API chain, against cookie-less requests to the session-based page chain. Logs requests per
+ * second, heap allocated per request and HTTP sessions created for each, and checks the token
+ * lifecycle: wrong credentials, forged tokens, revocation on disable and tokens being refused by
+ * the page chain. Creates its own USER role, so the test gets its own database.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:stateless_api;MODE=PostgreSQL;"
+        + "DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;INIT=CREATE SCHEMA IF NOT EXISTS public")
+@Slf4j
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@DirtiesContext
+class StatelessApiBenchmarkTest {
+    private static final String PASSWORD = "qwerty123";
+    private static final String HISTORY = "/api/v1/transactions/history";
+    private static final int REQUESTS = 500;
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private TestData testData;
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("API requests create no sessions with tokens or Basic, while page requests still do")
+    void apiRequests_ShouldBeStateless() throws Exception {
+        User user = createUser("+7(700)5558001");
+        String token = issueToken(user.getPhoneNumber(), PASSWORD);
+
+        Supplier<RequestBuilder> tokenRequest = () -> get(HISTORY).header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        Supplier<RequestBuilder> basicRequest = () -> get(HISTORY).with(httpBasic(user.getPhoneNumber(), PASSWORD));
+        Supplier<RequestBuilder> pageRequest = () -> get("/auth/login");
+        for (Supplier<RequestBuilder> warmUp : List.of(tokenRequest, basicRequest, pageRequest)) {
+            measure(warmUp);
+        }
+
+        Mode tokenMode = measure(tokenRequest);
+        Mode basicMode = measure(basicRequest);
+        Mode sessionMode = measure(pageRequest);
+        log.info("requests of {}: token {}; basic {}; page chain {}", REQUESTS, tokenMode, basicMode, sessionMode);
+
+        assertEquals(0, tokenMode.sessions());
+        assertEquals(0, basicMode.sessions());
+        assertEquals(REQUESTS, sessionMode.sessions());
+        assertTrue(tokenMode.kilobytesPerRequest() < sessionMode.kilobytesPerRequest());
+    }
+
+    @Test
+    @DisplayName("Tokens are issued for valid credentials only, verified by signature and revoked on disable")
+    void accessToken_ShouldFollowUserLifecycle() throws Exception {
+        User user = createUser("+7(700)5558002");
+
+        mockMvc.perform(post("/api/v1/auth/token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TokenRequest()
+                                .setPhoneNumber(user.getPhoneNumber())
+                                .setPassword(PASSWORD + "!"))))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get(HISTORY))
+                .andExpect(status().isUnauthorized());
+
+        String token = issueToken(user.getPhoneNumber(), PASSWORD);
+        mockMvc.perform(get(HISTORY).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(HISTORY).header(HttpHeaders.AUTHORIZATION, "Bearer " + forge(token)))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\""));
+        mockMvc.perform(get("/profile").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().is3xxRedirection());
+
+        userService.toggleUserStatus(user.getId());
+        mockMvc.perform(get(HISTORY).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/v1/auth/token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TokenRequest()
+                                .setPhoneNumber(user.getPhoneNumber())
+                                .setPassword(PASSWORD))))
+                .andExpect(status().isUnauthorized());
+
+        userService.toggleUserStatus(user.getId());
+        Thread.sleep(2);
+        String renewed = issueToken(user.getPhoneNumber(), PASSWORD);
+        assertNotEquals(token, renewed);
+        mockMvc.perform(get(HISTORY).header(HttpHeaders.AUTHORIZATION, "Bearer " + renewed))
+                .andExpect(status().isOk());
+    }
+
+    private Mode measure(Supplier<RequestBuilder> request) throws Exception {
+        int sessions = 0;
+        long allocatedBefore = THREAD_BEAN.getCurrentThreadAllocatedBytes();
+        long started = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            MvcResult result = mockMvc.perform(request.get()).andReturn();
+            assertEquals(200, result.getResponse().getStatus());
+            if (result.getRequest().getSession(false) != null) {
+                sessions++;
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        double kilobytes = (THREAD_BEAN.getCurrentThreadAllocatedBytes() - allocatedBefore) / 1024.0;
+        return new Mode(REQUESTS / seconds, kilobytes / REQUESTS, sessions);
+    }
+
+    private String issueToken(String phoneNumber, String password) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/v1/auth/token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TokenRequest()
+                                .setPhoneNumber(phoneNumber)
+                                .setPassword(password))))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode data = objectMapper.readTree(result.getResponse().getContentAsString()).get("data");
+        assertEquals("Bearer", data.get("tokenType").asText());
+        assertNull(result.getRequest().getSession(false));
+        return data.get("accessToken").asText();
+    }
+
+    /**
+     * Same signature, payload claiming a different user id.
+     */
+    private String forge(String token) {
+        int dot = token.indexOf('.');
+        String payload = new String(Base64.getUrlDecoder().decode(token.substring(0, dot)));
+        String[] fields = payload.split("\\|", 3);
+        String forged = fields[0] + "|" + (Long.parseLong(fields[1]) + 1) + "|" + fields[2];
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(forged.getBytes())
+               + token.substring(dot);
+    }
+
+    private User createUser(String phoneNumber) {
+        return testData.user(phoneNumber, testData.role("USER"), passwordEncoder.encode(PASSWORD));
+    }
+
+    private record Mode(double requestsPerSecond, double kilobytesPerRequest, int sessions) {
+        @Override
+        public String toString() {
+            return "%.1f req/s %.1f KB/req %d sessions".formatted(requestsPerSecond, kilobytesPerRequest, sessions);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package kg.manurov.bankmvc.controllers.mvc;
+
+import jakarta.persistence.EntityManagerFactory;
+import kg.manurov.bankmvc.custom.TestData;
+import kg.manurov.bankmvc.custom.WithMockCustomUser;
+import kg.manurov.bankmvc.entities.Card;
+import kg.manurov.bankmvc.entities.Transaction;
+import kg.manurov.bankmvc.entities.User;
+import kg.manurov.bankmvc.enums.TransactionStatus;
+import kg.manurov.bankmvc.repositories.TransactionRepo;
+import kg.manurov.bankmvc.service.TransactionStatsService;
+import kg.manurov.bankmvc.util.AuthenticatedUserUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Profile and history page latency for a user with a large transaction history. The dashboard
+ * numbers come from the statistics rollup, so the pages must not slow down or issue more
+ * statements as the history grows. Scale with {@code -Dbenchmark.transactions=10000000}.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class ProfileStatsBenchmarkTest {
+    private static final int TRANSACTIONS = Integer.getInteger("benchmark.transactions", 20_000);
+    private static final int CHUNK = 5_000;
+    private static final int REQUESTS = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionStatsService transactionStatsService;
+    @Autowired
+    private TransactionRepo transactionRepository;
+    @Autowired
+    private AuthenticatedUserUtil userUtil;
+    @Autowired
+    private TestData testData;
+
+    @Test
+    @WithMockCustomUser(phoneNumber = "+7(700)5550602")
+    @DisplayName("Profile page cost does not grow with the transaction history")
+    void profile_ShouldNotSlowDown_WithLargeHistory() throws Exception {
+        User user = userUtil.getCurrentUser();
+        Card fromCard = testData.card(user);
+        Card toCard = testData.card(user);
+        insertTransactions(fromCard, toCard, 10);
+        transactionStatsService.rebuild();
+        long smallStatements = countStatements("/profile");
+
+        insertTransactions(fromCard, toCard, TRANSACTIONS - 10);
+        transactionStatsService.rebuild();
+        long largeStatements = countStatements("/profile");
+
+        log.info("transactions={} profile avg ms={} history avg ms={}", TRANSACTIONS,
+                "%.2f".formatted(averageMillis("/profile")), "%.2f".formatted(averageMillis("/transactions/my?size=10")));
+        assertEquals(smallStatements, largeStatements);
+        assertEquals(TRANSACTIONS, transactionStatsService.getTransactionCount(user.getId()));
+    }
+
+    private double averageMillis(String url) throws Exception {
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        long started = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            mockMvc.perform(get(url)).andExpect(status().isOk());
+        }
+        return (System.nanoTime() - started) / 1_000_000.0 / REQUESTS;
+    }
+
+    private long countStatements(String url) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void insertTransactions(Card fromCard, Card toCard, int count) {
+        for (int inserted = 0; inserted < count; inserted += CHUNK) {
+            List<Transaction> chunk = new ArrayList<>();
+            for (int i = inserted; i < Math.min(count, inserted + CHUNK); i++) {
+                chunk.add(Transaction.builder()
+                        .fromCard(fromCard)
+                        .toCard(toCard)
+                        .amount(BigDecimal.ONE)
+                        .status(TransactionStatus.SUCCESS.name())
+                        .build());
+            }
+            transactionRepository.saveAll(chunk);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package kg.manurov.bankmvc.controllers.mvc;
+
+import jakarta.persistence.EntityManagerFactory;
+import kg.manurov.bankmvc.custom.TestData;
+import kg.manurov.bankmvc.custom.WithMockCustomUser;
+import kg.manurov.bankmvc.entities.Card;
+import kg.manurov.bankmvc.entities.Role;
+import kg.manurov.bankmvc.entities.Transaction;
+import kg.manurov.bankmvc.entities.User;
+import kg.manurov.bankmvc.enums.TransactionStatus;
+import kg.manurov.bankmvc.repositories.TransactionRepo;
+import kg.manurov.bankmvc.util.AuthenticatedUserUtil;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Masking must not add per-row queries: the number of SQL statements a page issues stays the same
+ * however many cards the user has.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class StatementCountTest {
+    private static final int USERS_PAGE_SIZE = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionRepo transactionRepository;
+    @Autowired
+    private AuthenticatedUserUtil userUtil;
+    @Autowired
+    private TestData testData;
+
+    @Test
+    @WithMockCustomUser(phoneNumber = "+7(700)5550001")
+    @DisplayName("Profile page statement count does not grow with the number of cards")
+    void profile_ShouldIssueConstantStatementCount() throws Exception {
+        User user = userUtil.getCurrentUser();
+        createCards(user, 2);
+        long fewCards = countStatements("/profile");
+
+        createCards(user, 10);
+        long manyCards = countStatements("/profile");
+
+        assertEquals(fewCards, manyCards);
+    }
+
+    @Test
+    @WithMockCustomUser(phoneNumber = "+7(700)5550002")
+    @DisplayName("Transaction history statement count does not grow with the number of cards")
+    void myTransactions_ShouldIssueConstantStatementCount() throws Exception {
+        User user = userUtil.getCurrentUser();
+        createTransaction(testData.card(user), testData.card(user));
+        long fewCards = countStatements("/transactions/my?size=10");
+
+        for (int i = 0; i < 5; i++) {
+            createTransaction(testData.card(user), testData.card(user));
+        }
+        long manyCards = countStatements("/transactions/my?size=10");
+
+        assertEquals(fewCards, manyCards);
+    }
+
+    @Test
+    @WithMockCustomUser(phoneNumber = "+7(700)5550003", role = "ADMIN")
+    @DisplayName("Users list statement count does not grow with the number of cards")
+    void users_ShouldIssueConstantStatementCount() throws Exception {
+        Role role = testData.role("USER");
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS_PAGE_SIZE; i++) {
+            User user = testData.user(String.format("+7(700)5553%03d", i), role);
+            testData.card(user);
+            users.add(user);
+        }
+        long fewCards = countStatements("/users");
+
+        users.forEach(user -> createCards(user, 3));
+        long manyCards = countStatements("/users");
+
+        assertEquals(fewCards, manyCards);
+        // the page of users with their role, the total count and one card summary query
+        assertEquals(3, manyCards);
+    }
+
+    private long countStatements(String url) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void createCards(User user, int count) {
+        for (int i = 0; i < count; i++) {
+            testData.card(user);
+        }
+    }
+
+    private void createTransaction(Card fromCard, Card toCard) {
+        transactionRepository.save(Transaction.builder()
+                .fromCard(fromCard)
+                .toCard(toCard)
+                .amount(BigDecimal.TEN)
+                .status(TransactionStatus.SUCCESS.name())
+                .build());
+    }
+}
@@ -0,0 +1,85 @@
+package kg.manurov.bankmvc.custom;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import kg.manurov.bankmvc.dto.mappers.CardMapper;
+import kg.manurov.bankmvc.entities.Card;
+import kg.manurov.bankmvc.entities.Role;
+import kg.manurov.bankmvc.entities.User;
+import kg.manurov.bankmvc.repositories.CardRepository;
+import kg.manurov.bankmvc.repositories.UserRepository;
+import kg.manurov.bankmvc.util.EncryptionUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+/**
+ * Users, roles and cards for integration tests. Cards are issued the way the application issues
+ * them: a generated number with its blind index, VISA, active, zero balance unless given.
+ */
+@Component
+@RequiredArgsConstructor
+public class TestData {
+    private static final String PASSWORD = "password";
+
+    private final UserRepository userRepository;
+    private final CardRepository cardRepository;
+    private final CardMapper cardMapper;
+    private final EncryptionUtil encryptionUtil;
+    private final TransactionTemplate transactionTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public User user(String phoneNumber) {
+        return user(phoneNumber, null, PASSWORD);
+    }
+
+    public User user(String phoneNumber, Role role) {
+        return user(phoneNumber, role, PASSWORD);
+    }
+
+    public User user(String phoneNumber, Role role, String encodedPassword) {
+        return userRepository.save(User.builder()
+                .phoneNumber(phoneNumber)
+                .firstName("Test")
+                .lastName("User")
+                .password(encodedPassword)
+                .role(role)
+                .enabled(true)
+                .build());
+    }
+
+    /**
+     * The role with this name, created if the test database does not have it yet.
+     */
+    public Role role(String name) {
+        return transactionTemplate.execute(status -> entityManager
+                .createQuery("select r from Role r where r.name = :name", Role.class)
+                .setParameter("name", name)
+                .getResultStream()
+                .findFirst()
+                .orElseGet(() -> {
+                    Role role = new Role().setName(name);
+                    entityManager.persist(role);
+                    return role;
+                }));
+    }
+
+    /**
+     * A card for {@code owner} that is not saved yet, for tests that adjust it first.
+     */
+    public Card newCard(User owner) {
+        String cardNumber = encryptionUtil.generateCardNumber();
+        return cardMapper.createEntity(owner, cardNumber, encryptionUtil.hashCardNumber(cardNumber), "VISA");
+    }
+
+    public Card card(User owner) {
+        return cardRepository.save(newCard(owner));
+    }
+
+    public Card card(User owner, BigDecimal balance) {
+        return cardRepository.save(newCard(owner).setBalance(balance));
+    }
+}
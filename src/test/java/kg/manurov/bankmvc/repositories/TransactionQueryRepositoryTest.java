@@ -0,0 +1,173 @@
+package kg.manurov.bankmvc.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import kg.manurov.bankmvc.custom.TestData;
+import kg.manurov.bankmvc.dto.transactions.TransactionCursor;
+import kg.manurov.bankmvc.entities.Card;
+import kg.manurov.bankmvc.entities.Transaction;
+import kg.manurov.bankmvc.entities.User;
+import kg.manurov.bankmvc.enums.TransactionStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * "From or to" queries run as a UNION ALL of one branch per side. Checks that a transaction shows
+ * up exactly once however many of its sides match, and that each branch reaches the transactions
+ * table through an index on its own card column rather than a table scan.
+ * <p>
+ * H2 also indexes every foreign key and prefers those single-column indexes over the
+ * (card, created_at, id) ones Liquibase creates on PostgreSQL, so the plan checks match on the
+ * indexed column rather than on an index name.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class TransactionQueryRepositoryTest {
+    @Autowired
+    private TransactionRepo transactionRepository;
+    @Autowired
+    private TestData testData;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private User user;
+    private Card first;
+    private Card second;
+    private Card foreign;
+    private Transaction topUp;
+    private Transaction ownTransfer;
+    private Transaction incoming;
+    private Transaction outgoing;
+    private Transaction foreignTopUp;
+
+    @BeforeEach
+    void setUp() {
+        user = testData.user("+7(700)5550901");
+        User other = testData.user("+7(700)5550902");
+        first = testData.card(user);
+        second = testData.card(user);
+        foreign = testData.card(other);
+
+        topUp = createTransaction(first, first);
+        ownTransfer = createTransaction(first, second);
+        incoming = createTransaction(foreign, first);
+        outgoing = createTransaction(second, foreign);
+        foreignTopUp = createTransaction(foreign, foreign);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Card history lists each transaction touching the card once, newest first")
+    void findInvolving_ByCard_ShouldListEachTransactionOnce() {
+        List<Transaction> result = transactionRepository.findInvolving(null, first.getId(), null, null, null, 10);
+
+        assertThat(ids(result)).containsExactly(incoming.getId(), ownTransfer.getId(), topUp.getId());
+    }
+
+    @Test
+    @DisplayName("User history lists transfers between the user's own cards once")
+    void findInvolving_ByUser_ShouldListOwnTransfersOnce() {
+        List<Transaction> result = transactionRepository.findInvolving(user.getId(), null, null, null, null, 10);
+
+        assertThat(ids(result)).containsExactly(
+                outgoing.getId(), incoming.getId(), ownTransfer.getId(), topUp.getId());
+        assertThat(result.get(0).getFromCard().getId()).isEqualTo(second.getId());
+        assertThat(result.get(0).getToCard().getId()).isEqualTo(foreign.getId());
+    }
+
+    @Test
+    @DisplayName("User history filtered by card keeps only transactions the user takes part in")
+    void findInvolving_ByUserAndCard_ShouldRequireOwnership() {
+        List<Transaction> result = transactionRepository.findInvolving(
+                user.getId(), foreign.getId(), null, null, null, 10);
+
+        assertThat(ids(result)).containsExactly(outgoing.getId(), incoming.getId());
+    }
+
+    @Test
+    @DisplayName("A user without cards has no history")
+    void findInvolving_ByUserWithoutCards_ShouldBeEmpty() {
+        User cardless = testData.user("+7(700)5550903");
+
+        assertThat(transactionRepository.findInvolving(cardless.getId(), null, null, null, null, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Pages continue after the cursor without gaps or repeats")
+    void findInvolving_WithCursor_ShouldContinueAfterIt() {
+        List<Transaction> firstPage = transactionRepository.findInvolving(user.getId(), null, null, null, null, 2);
+        TransactionCursor cursor = TransactionCursor.after(firstPage.get(firstPage.size() - 1));
+        List<Transaction> secondPage = transactionRepository.findInvolving(user.getId(), null, null, null, cursor, 2);
+
+        assertThat(ids(firstPage)).containsExactly(outgoing.getId(), incoming.getId());
+        assertThat(ids(secondPage)).containsExactly(ownTransfer.getId(), topUp.getId());
+    }
+
+    @Test
+    @DisplayName("A user or a card is required")
+    void findInvolving_WithoutUserOrCard_ShouldFail() {
+        assertThatThrownBy(() -> transactionRepository.findInvolving(null, null, null, null, null, 10))
+                .isInstanceOf(InvalidDataAccessApiUsageException.class)
+                .hasRootCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Card history reads each side through its card index")
+    void explain_ByCard_ShouldSeekEachSide() {
+        String plan = explain(null, first.getId()).toLowerCase();
+
+        assertThat(plan).containsPattern("public\\.\\w+: from_card_id = \\?");
+        assertThat(plan).containsPattern("public\\.\\w+: to_card_id = \\?");
+        assertThat(plan).doesNotContain("transactions.tablescan");
+    }
+
+    @Test
+    @DisplayName("User history reads each side through its card index for the user's cards, joining no cards")
+    void explain_ByUser_ShouldSeekEachSide() {
+        String plan = explain(List.of(first.getId(), second.getId()), null).toLowerCase();
+
+        assertThat(plan).containsPattern("public\\.\\w+: from_card_id in ?\\(");
+        assertThat(plan).containsPattern("public\\.\\w+: to_card_id in ?\\(");
+        assertThat(plan).doesNotContain("transactions.tablescan");
+        assertThat(plan).doesNotContain("public.cards");
+    }
+
+    private String explain(List<Long> userCardIds, Long cardId) {
+        Map<String, Object> parameters = new HashMap<>();
+        String sql = TransactionQueryRepositoryImpl.buildInvolvingQuery(
+                userCardIds, cardId, null, null, null, 10, parameters);
+        Query query = entityManager.createNativeQuery("EXPLAIN " + sql);
+        parameters.forEach(query::setParameter);
+        return String.valueOf(query.getSingleResult());
+    }
+
+    private List<Long> ids(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getId).toList();
+    }
+
+    private Transaction createTransaction(Card fromCard, Card toCard) {
+        return transactionRepository.save(Transaction.builder()
+                .fromCard(fromCard)
+                .toCard(toCard)
+                .amount(BigDecimal.ONE)
+                .status(TransactionStatus.SUCCESS.name())
+                .build());
+    }
+}
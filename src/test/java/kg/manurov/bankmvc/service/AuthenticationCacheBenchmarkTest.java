@@ -0,0 +1,117 @@
+package kg.manurov.bankmvc.service;
+
+import kg.manurov.bankmvc.custom.TestData;
+import kg.manurov.bankmvc.entities.User;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Authentications per second with the same credentials repeated, as an HTTP Basic client sends
+ * them, through a provider without caches and through the application's cached one; also checks
+ * that wrong passwords are never cached and that disabling a user takes effect immediately.
+ * Creates its own USER role, so the test gets its own database.
+ */
+@Slf4j
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:authentication_cache;MODE=PostgreSQL;"
+        + "DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;INIT=CREATE SCHEMA IF NOT EXISTS public")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@DirtiesContext
+class AuthenticationCacheBenchmarkTest {
+    private static final String PASSWORD = "qwerty123";
+    private static final int UNCACHED_ROUNDS = 30;
+    private static final int CACHED_ROUNDS = 3_000;
+    private static final int REQUESTS = 300;
+
+    @Autowired
+    private AuthenticationProvider authenticationProvider;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TestData testData;
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("Cached authentication is much faster than uncached")
+    void authenticate_ShouldBeFasterWithCaches() throws Exception {
+        User user = createUser("+7(700)5557001");
+        DaoAuthenticationProvider uncached = new DaoAuthenticationProvider();
+        uncached.setUserDetailsService(userService);
+        uncached.setPasswordEncoder(passwordEncoder);
+
+        double uncachedPerSecond = authenticationsPerSecond(uncached, user.getPhoneNumber(), UNCACHED_ROUNDS);
+        double cachedPerSecond = authenticationsPerSecond(authenticationProvider, user.getPhoneNumber(), CACHED_ROUNDS);
+        double requestsPerSecond = requestsPerSecond(user.getPhoneNumber());
+        log.info("authentications/s: uncached={} cached={}; HTTP Basic requests/s with the cached provider={}",
+                "%.1f".formatted(uncachedPerSecond), "%.1f".formatted(cachedPerSecond),
+                "%.1f".formatted(requestsPerSecond));
+        assertTrue(cachedPerSecond > uncachedPerSecond * 10);
+    }
+
+    @Test
+    @DisplayName("Cached authentication still rejects wrong passwords and disabled users")
+    void authenticate_ShouldHonourInvalidation() throws Exception {
+        User user = createUser("+7(700)5557002");
+        authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(user.getPhoneNumber(), PASSWORD));
+
+        assertThrows(BadCredentialsException.class, () -> authenticationProvider.authenticate(
+                new UsernamePasswordAuthenticationToken(user.getPhoneNumber(), PASSWORD + "!")));
+
+        userService.toggleUserStatus(user.getId());
+        assertThrows(DisabledException.class, () -> authenticationProvider.authenticate(
+                new UsernamePasswordAuthenticationToken(user.getPhoneNumber(), PASSWORD)));
+        mockMvc.perform(get("/api/v1/transactions/history").with(httpBasic(user.getPhoneNumber(), PASSWORD)))
+                .andExpect(status().isUnauthorized());
+
+        userService.toggleUserStatus(user.getId());
+        assertEquals(user.getPhoneNumber(), authenticationProvider.authenticate(
+                new UsernamePasswordAuthenticationToken(user.getPhoneNumber(), PASSWORD)).getName());
+    }
+
+    private double authenticationsPerSecond(AuthenticationProvider provider, String phoneNumber, int rounds) {
+        provider.authenticate(new UsernamePasswordAuthenticationToken(phoneNumber, PASSWORD));
+        long started = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            provider.authenticate(new UsernamePasswordAuthenticationToken(phoneNumber, PASSWORD));
+        }
+        return rounds / ((System.nanoTime() - started) / 1_000_000_000.0);
+    }
+
+    private double requestsPerSecond(String phoneNumber) throws Exception {
+        long started = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            mockMvc.perform(get("/api/v1/transactions/history").with(httpBasic(phoneNumber, PASSWORD)))
+                    .andExpect(status().isOk());
+        }
+        return REQUESTS / ((System.nanoTime() - started) / 1_000_000_000.0);
+    }
+
+    private User createUser(String phoneNumber) {
+        return testData.user(phoneNumber, testData.role("USER"), passwordEncoder.encode(PASSWORD));
+    }
+}
@@ -0,0 +1,99 @@
+package kg.manurov.bankmvc.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import kg.manurov.bankmvc.custom.TestData;
+import kg.manurov.bankmvc.custom.WithMockCustomUser;
+import kg.manurov.bankmvc.dto.transactions.TransferRequest;
+import kg.manurov.bankmvc.dto.transactions.TransferResult;
+import kg.manurov.bankmvc.entities.Card;
+import kg.manurov.bankmvc.entities.User;
+import kg.manurov.bankmvc.enums.TransactionStatus;
+import kg.manurov.bankmvc.repositories.CardRepository;
+import kg.manurov.bankmvc.util.AuthenticatedUserUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput of a 10k-item transfer batch. Logs items/sec and the number of prepared statements,
+ * and checks that the batch is applied with a bounded number of statements and conserves money.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class BatchTransferBenchmarkTest {
+    private static final int CARDS = 20;
+    private static final int ITEMS = 10_000;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private AuthenticatedUserUtil userUtil;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TestData testData;
+
+    @Test
+    @WithMockCustomUser(phoneNumber = "+7(700)5550301")
+    @DisplayName("A 10k-item batch is applied with batched statements and conserves the total balance")
+    void transferBatch_ShouldApplyTenThousandItems() {
+        User owner = userUtil.getCurrentUser();
+        List<Long> cards = new ArrayList<>();
+        for (int i = 0; i < CARDS; i++) {
+            cards.add(testData.card(owner, INITIAL_BALANCE).getId());
+        }
+        List<TransferRequest> requests = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            requests.add(request(cards.get(i % CARDS), cards.get((i + 1) % CARDS), BigDecimal.ONE));
+        }
+        requests.add(request(cards.get(0), cards.get(1), new BigDecimal("1000000.00")));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long started = System.nanoTime();
+        List<TransferResult> results = transactionService.transferBatch(requests);
+        double seconds = (System.nanoTime() - started) / 1e9;
+        long statements = statistics.getPrepareStatementCount();
+        log.info("batch items={} items/sec={} prepared statements={}",
+                requests.size(), "%.1f".formatted(requests.size() / seconds), statements);
+
+        long succeeded = results.stream()
+                .filter(result -> TransactionStatus.SUCCESS.name().equals(result.getStatus()))
+                .count();
+        assertEquals(ITEMS, succeeded);
+        assertEquals("Insufficient funds on sender card", results.get(ITEMS).getErrorMessage());
+        assertTrue(statements < ITEMS / 10, "expected batched statements, got " + statements);
+
+        BigDecimal total = cardRepository.findAllById(cards).stream()
+                .map(Card::getBalance)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, INITIAL_BALANCE.multiply(BigDecimal.valueOf(CARDS)).compareTo(total));
+    }
+
+    private TransferRequest request(Long fromCardId, Long toCardId, BigDecimal amount) {
+        TransferRequest request = new TransferRequest();
+        request.setFromCardId(fromCardId);
+        request.setToCardId(toCardId);
+        request.setAmount(amount);
+        request.setDescription("payroll");
+        return request;
+    }
+}
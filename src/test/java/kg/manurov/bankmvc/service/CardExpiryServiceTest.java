@@ -0,0 +1,97 @@
+package kg.manurov.bankmvc.service;
+
+import kg.manurov.bankmvc.custom.TestData;
+import kg.manurov.bankmvc.entities.Card;
+import kg.manurov.bankmvc.entities.SchedulerLock;
+import kg.manurov.bankmvc.entities.User;
+import kg.manurov.bankmvc.enums.CardStatus;
+import kg.manurov.bankmvc.repositories.CardRepository;
+import kg.manurov.bankmvc.repositories.SchedulerLockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CardExpiryServiceTest {
+    private static final String LOCK_NAME = "card-expiry";
+
+    @Autowired
+    private CardExpiryService cardExpiryService;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private SchedulerLockRepository schedulerLockRepository;
+    @Autowired
+    private TestData testData;
+
+    @AfterEach
+    void releaseLock() {
+        schedulerLockRepository.deleteById(LOCK_NAME);
+    }
+
+    @Test
+    @DisplayName("Expiry marks past-due cards across several chunks and leaves the rest alone")
+    void expireCards_ShouldMarkOnlyPastDueCards() {
+        User owner = testData.user("+7(700)5550501");
+        List<Long> pastDue = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            pastDue.add(createCard(owner, LocalDate.now().minusDays(1), CardStatus.ACTIVE).getId());
+        }
+        Long valid = createCard(owner, LocalDate.now().plusYears(1), CardStatus.ACTIVE).getId();
+        Long blocked = createCard(owner, LocalDate.now().plusYears(1), CardStatus.BLOCKED).getId();
+
+        Integer chunkSize = (Integer) ReflectionTestUtils.getField(cardExpiryService, "chunkSize");
+        ReflectionTestUtils.setField(cardExpiryService, "chunkSize", 7);
+        try {
+            assertTrue(cardExpiryService.expireCards() >= pastDue.size());
+            assertEquals(0, cardExpiryService.expireCards());
+        } finally {
+            ReflectionTestUtils.setField(cardExpiryService, "chunkSize", chunkSize);
+        }
+
+        assertTrue(cardRepository.findAllById(pastDue).stream()
+                .allMatch(card -> CardStatus.EXPIRED.name().equals(card.getStatus())));
+        assertEquals(CardStatus.ACTIVE.name(), cardRepository.findById(valid).orElseThrow().getStatus());
+        assertEquals(CardStatus.BLOCKED.name(), cardRepository.findById(blocked).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("Nightly job is skipped while another node holds the lock")
+    void expireCardsNightly_ShouldSkip_WhenLockedByAnotherNode() {
+        User owner = testData.user("+7(700)5550502");
+        Long pastDue = createCard(owner, LocalDate.now().minusDays(1), CardStatus.ACTIVE).getId();
+        schedulerLockRepository.save(SchedulerLock.builder()
+                .name(LOCK_NAME)
+                .lockedAt(Instant.now())
+                .lockedUntil(Instant.now().plus(1, ChronoUnit.HOURS))
+                .lockedBy("other-node")
+                .build());
+
+        cardExpiryService.expireCardsNightly();
+        assertEquals(CardStatus.ACTIVE.name(), cardRepository.findById(pastDue).orElseThrow().getStatus());
+
+        schedulerLockRepository.save(schedulerLockRepository.findById(LOCK_NAME).orElseThrow()
+                .setLockedUntil(Instant.now().minusSeconds(1)));
+
+        cardExpiryService.expireCardsNightly();
+        assertEquals(CardStatus.EXPIRED.name(), cardRepository.findById(pastDue).orElseThrow().getStatus());
+    }
+
+    private Card createCard(User owner, LocalDate expiryDate, CardStatus status) {
+        return cardRepository.save(testData.newCard(owner).setExpiryDate(expiryDate).setStatus(status.name()));
+    }
+}
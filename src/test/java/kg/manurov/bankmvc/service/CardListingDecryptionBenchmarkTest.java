@@ -0,0 +1,117 @@
+package kg.manurov.bankmvc.service;
+
+import kg.manurov.bankmvc.custom.TestData;
+import kg.manurov.bankmvc.dto.cards.CardDto;
+import kg.manurov.bankmvc.entities.Card;
+import kg.manurov.bankmvc.entities.User;
+import kg.manurov.bankmvc.repositories.CardRepository;
+import kg.manurov.bankmvc.util.CryptoEngine;
+import kg.manurov.bankmvc.util.EncryptionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The admin card listing ({@code /cards/all}) with card numbers decrypted eagerly for every row of
+ * the page and masked afterwards, as before {@code CardNumber}, versus the current lazy path that
+ * masks from the stored last four digits. Logs p50 and p99 page latency of both, and checks they
+ * render the same numbers and that only the eager path decrypts.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class CardListingDecryptionBenchmarkTest {
+    private static final int USERS = 50;
+    private static final int CARDS_PER_USER = 20;
+    private static final int ROUNDS = 200;
+
+    @Autowired
+    private CardService cardService;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private EncryptionUtil encryptionUtil;
+    @Autowired
+    private CryptoEngine cryptoEngine;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private TestData testData;
+    @Value("${app.page_size}")
+    private int pageSize;
+
+    @Test
+    @DisplayName("Card listing pages mask without decrypting")
+    void getAllCards_ShouldMaskWithoutDecrypting() {
+        for (int i = 0; i < USERS; i++) {
+            User user = testData.user(String.format("+7(700)5553%03d", i));
+            for (int j = 0; j < CARDS_PER_USER; j++) {
+                testData.card(user, BigDecimal.valueOf(j));
+            }
+        }
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Pageable page = PageRequest.of(0, pageSize, Sort.by("createdAt"));
+
+        Supplier<List<String>> eager = () -> readOnly.execute(status -> cardRepository.findAll(page)
+                .map(Card::getCardNumber)
+                .map(encryptionUtil::revealCardNumber)
+                .map(encryptionUtil::maskCardNumber)
+                .getContent());
+        Supplier<List<String>> lazy = () -> cardService.getAllCards(null, null, null, "createdAt", 0)
+                .map(CardDto::getCardNumber)
+                .getContent();
+
+        Measurement eagerPage = measure(eager);
+        Measurement lazyPage = measure(lazy);
+        log.info("card listing ({} cards, page size {}): eager decryption p50 ms={} p99 ms={} decryptions/page={}, "
+                        + "lazy CardNumber p50 ms={} p99 ms={} decryptions/page={}",
+                USERS * CARDS_PER_USER, pageSize,
+                "%.2f".formatted(eagerPage.p50Millis()), "%.2f".formatted(eagerPage.p99Millis()),
+                eagerPage.decryptionsPerPage(),
+                "%.2f".formatted(lazyPage.p50Millis()), "%.2f".formatted(lazyPage.p99Millis()),
+                lazyPage.decryptionsPerPage());
+
+        assertEquals(eager.get(), lazy.get());
+        assertEquals(pageSize, eagerPage.decryptionsPerPage());
+        assertEquals(0, lazyPage.decryptionsPerPage());
+    }
+
+    private Measurement measure(Supplier<?> page) {
+        for (int i = 0; i < ROUNDS / 4; i++) {
+            page.get();
+        }
+        long[] latencies = new long[ROUNDS];
+        long decryptionsBefore = cryptoEngine.getDecryptions();
+        for (int i = 0; i < ROUNDS; i++) {
+            long started = System.nanoTime();
+            page.get();
+            latencies[i] = System.nanoTime() - started;
+        }
+        long decryptions = cryptoEngine.getDecryptions() - decryptionsBefore;
+        Arrays.sort(latencies);
+        return new Measurement(latencies[ROUNDS / 2] / 1_000_000.0,
+                latencies[(int) Math.ceil(ROUNDS * 0.99) - 1] / 1_000_000.0, decryptions / ROUNDS);
+    }
+
+    private record Measurement(double p50Millis, double p99Millis, long decryptionsPerPage) {
+    }
+}
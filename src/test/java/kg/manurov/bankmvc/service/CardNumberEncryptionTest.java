@@ -0,0 +1,163 @@
+package kg.manurov.bankmvc.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import kg.manurov.bankmvc.custom.TestData;
+import kg.manurov.bankmvc.custom.WithMockCustomUser;
+import kg.manurov.bankmvc.dto.cards.CardDto;
+import kg.manurov.bankmvc.dto.mappers.CardMapper;
+import kg.manurov.bankmvc.dto.transactions.TransferRequest;
+import kg.manurov.bankmvc.entities.Card;
+import kg.manurov.bankmvc.entities.CardNumber;
+import kg.manurov.bankmvc.entities.User;
+import kg.manurov.bankmvc.repositories.CardRepository;
+import kg.manurov.bankmvc.util.AuthenticatedUserUtil;
+import kg.manurov.bankmvc.util.EncryptionUtil;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Card numbers are encrypted when a card is written, however it is persisted, and entities never
+ * hold anything else in their state: a transfer issues one UPDATE per card and leaves card_number
+ * untouched, and an owner reading a card inside a read-write transaction causes no UPDATE at all.
+ * UPDATEs are counted per card row from the Hibernate statistics, since batched rows share one statement.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CardNumberEncryptionTest {
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("100.00");
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private CardService cardService;
+    @Autowired
+    private CardBackfillService backfillService;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private CardMapper cardMapper;
+    @Autowired
+    private EncryptionUtil encryptionUtil;
+    @Autowired
+    private AuthenticatedUserUtil userUtil;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TestData testData;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    @WithMockCustomUser(phoneNumber = "+7(700)5555001")
+    @DisplayName("Transfer updates each card once and leaves the stored ciphertext as it was")
+    void transfer_ShouldUpdateBalancesOnly() {
+        User owner = userUtil.getCurrentUser();
+        Long from = testData.card(owner, INITIAL_BALANCE).getId();
+        Long to = testData.card(owner, INITIAL_BALANCE).getId();
+        String fromStored = storedCardNumber(from);
+        String toStored = storedCardNumber(to);
+
+        Statistics statistics = statistics();
+        transactionService.transferBetweenUserCards(request(from, to, new BigDecimal("10.00")));
+        assertEquals(2, cardUpdates(statistics));
+
+        statistics.clear();
+        transactionService.transferBetweenUserCards(request(to, from, new BigDecimal("5.00")));
+        assertEquals(2, cardUpdates(statistics));
+
+        assertEquals(fromStored, storedCardNumber(from));
+        assertEquals(toStored, storedCardNumber(to));
+        assertEquals(0, new BigDecimal("95.00").compareTo(cardRepository.findById(from).orElseThrow().getBalance()));
+    }
+
+    @Test
+    @WithMockCustomUser(phoneNumber = "+7(700)5555002")
+    @DisplayName("Owner reading the full number in a read-write transaction writes nothing")
+    void reveal_InReadWriteTransaction_ShouldNotUpdate() {
+        User owner = userUtil.getCurrentUser();
+        String plainCardNumber = encryptionUtil.generateCardNumber();
+        Long cardId = cardRepository.save(cardMapper.createEntity(owner, plainCardNumber,
+                encryptionUtil.hashCardNumber(plainCardNumber), "VISA")).getId();
+        String stored = storedCardNumber(cardId);
+
+        Statistics statistics = statistics();
+        CardDto dto = new TransactionTemplate(transactionManager).execute(status ->
+                cardMapper.toDto(cardRepository.findById(cardId).orElseThrow()));
+
+        assertEquals(plainCardNumber, dto.getCardNumber());
+        assertEquals(0, cardUpdates(statistics));
+        assertEquals(stored, storedCardNumber(cardId));
+    }
+
+    @Test
+    @WithMockCustomUser(phoneNumber = "+7(700)5555003")
+    @DisplayName("Every way of writing a card stores the current envelope, never the plain number")
+    void stored_ShouldAlwaysBeCiphertext() {
+        User owner = userUtil.getCurrentUser();
+        String prefix = encryptionUtil.getEnvelopePrefix();
+        Long created = cardService.createCard(owner.getId(), "VISA").getId();
+        String plainCardNumber = encryptionUtil.generateCardNumber();
+        Card batched = cardRepository.saveAll(List.of(cardMapper.createEntity(owner, plainCardNumber,
+                encryptionUtil.hashCardNumber(plainCardNumber), "VISA"))).get(0);
+        Long legacy = testData.card(owner, INITIAL_BALANCE).getId();
+        String legacyPlain = encryptionUtil.decryptCardNumber(storedCardNumber(legacy));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                cardRepository.updateCardNumber(legacy, legacyPlain));
+
+        Long lastId = 0L;
+        while (lastId != null) {
+            lastId = backfillService.migrateCardNumberEnvelopes(lastId);
+        }
+
+        for (Long cardId : List.of(created, batched.getId(), legacy)) {
+            String stored = storedCardNumber(cardId);
+            assertTrue(stored.startsWith(prefix), stored);
+            assertEquals(CardNumber.lastFourOf(encryptionUtil.decryptCardNumber(stored)),
+                    cardRepository.findById(cardId).orElseThrow().getCardNumber().getLastFour());
+        }
+        assertEquals(plainCardNumber, encryptionUtil.decryptCardNumber(storedCardNumber(batched.getId())));
+        assertEquals(legacyPlain, encryptionUtil.decryptCardNumber(storedCardNumber(legacy)));
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private long cardUpdates(Statistics statistics) {
+        return statistics.getEntityStatistics(Card.class.getName()).getUpdateCount();
+    }
+
+    private String storedCardNumber(Long cardId) {
+        return (String) entityManager.createNativeQuery("SELECT card_number FROM cards WHERE id = :id")
+                .setParameter("id", cardId)
+                .getSingleResult();
+    }
+
+    private TransferRequest request(Long fromCardId, Long toCardId, BigDecimal amount) {
+        TransferRequest request = new TransferRequest();
+        request.setFromCardId(fromCardId);
+        request.setToCardId(toCardId);
+        request.setAmount(amount);
+        request.setDescription("encryption");
+        return request;
+    }
+}
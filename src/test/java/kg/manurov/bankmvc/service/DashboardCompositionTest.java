@@ -0,0 +1,238 @@
+package kg.manurov.bankmvc.service;
+
+import kg.manurov.bankmvc.components.DashboardMetrics;
+import kg.manurov.bankmvc.custom.TestData;
+import kg.manurov.bankmvc.custom.WithMockCustomUser;
+import kg.manurov.bankmvc.dto.CursorPage;
+import kg.manurov.bankmvc.dto.cards.CardDto;
+import kg.manurov.bankmvc.entities.User;
+import kg.manurov.bankmvc.util.AuthenticatedUserUtil;
+import kg.manurov.bankmvc.util.EncryptionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Dashboard pages with every read slowed down by {@value #READ_DELAY_MS} ms: composed, the history
+ * page takes about two delays instead of the sum of its five reads, never running more than
+ * {@value #PAGE_CONCURRENCY} at once. A read past the page deadline is replaced by its fallback,
+ * counted and interrupted, yet keeps its page permit until it actually returns, a failing main
+ * read still fails the page, and the reads see the caller's security context. The spied services
+ * force a separate context, so it gets its own database too.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:dashboard_composition;MODE=PostgreSQL;"
+        + "DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;INIT=CREATE SCHEMA IF NOT EXISTS public",
+        "app.dashboard.deadline_ms=400",
+        "app.dashboard.page_concurrency=" + DashboardCompositionTest.PAGE_CONCURRENCY})
+@ActiveProfiles("test")
+@DirtiesContext
+class DashboardCompositionTest {
+    static final int PAGE_CONCURRENCY = 3;
+    private static final long READ_DELAY_MS = 100;
+
+    private final AtomicInteger runningReads = new AtomicInteger();
+    private final AtomicInteger maxRunningReads = new AtomicInteger();
+
+    @Autowired
+    private DashboardService dashboardService;
+    @Autowired
+    private DashboardMetrics metrics;
+    @SpyBean
+    private TransactionService transactionService;
+    @SpyBean
+    private CardService cardService;
+    @Autowired
+    private EncryptionUtil encryptionUtil;
+    @Autowired
+    private AuthenticatedUserUtil userUtil;
+    @Autowired
+    private TestData testData;
+
+    @Test
+    @WithMockCustomUser(phoneNumber = "+7(700)5558101")
+    @DisplayName("History page reads run concurrently, each as the current user")
+    void transactionHistory_ShouldTakeSlowestReadNotSum() {
+        User owner = userUtil.getCurrentUser();
+        String plainCardNumber = encryptionUtil.revealCardNumber(testData.card(owner, BigDecimal.TEN).getCardNumber());
+        slowDown(READ_DELAY_MS);
+
+        long started = System.nanoTime();
+        transactionService.getTransactionHistory(owner.getId(), null, null, null, null, 10);
+        cardService.getUserCards(owner.getId());
+        transactionService.getMonthlyTransactionByUserId(owner.getId());
+        transactionService.getMonthlyTransactionCount(owner.getId());
+        transactionService.getTotTransAmount(owner.getId());
+        long sequentialMs = elapsedMs(started);
+
+        maxRunningReads.set(0);
+        started = System.nanoTime();
+        Map<String, Object> model = dashboardService.transactionHistory(owner.getId(), null, null, null, null, 10);
+        long composedMs = elapsedMs(started);
+        log.info("transaction history page with {} ms reads: sequential={} ms composed={} ms",
+                READ_DELAY_MS, sequentialMs, composedMs);
+
+        assertTrue(sequentialMs >= 5 * READ_DELAY_MS);
+        assertTrue(composedMs < 3 * READ_DELAY_MS);
+        assertTrue(maxRunningReads.get() <= PAGE_CONCURRENCY);
+        assertFalse((Boolean) model.get("partial"));
+        assertTrue(((CursorPage<?>) model.get("transactions")).getContent().isEmpty());
+        assertEquals(0, model.get("totalTransactions"));
+        List<?> cards = (List<?>) model.get("userCards");
+        assertEquals(1, cards.size());
+        assertEquals(plainCardNumber, ((CardDto) cards.get(0)).getCardNumber());
+        assertTrue(metrics.getFragmentTimings().get("transactionHistory.totalAmount").count() >= 1);
+    }
+
+    @Test
+    @WithMockCustomUser(phoneNumber = "+7(700)5558102")
+    @DisplayName("A figure past the deadline is replaced by its fallback and counted")
+    void profile_ShouldFallBackAfterDeadline() {
+        User owner = userUtil.getCurrentUser();
+        testData.card(owner, BigDecimal.TEN);
+        doAnswer(invocation -> {
+            TimeUnit.MILLISECONDS.sleep(1_000);
+            return invocation.callRealMethod();
+        }).when(transactionService).getMonthlyTransactionCount(anyLong());
+        long fallbacks = fallbacks("profile.monthlyTransactions");
+
+        long started = System.nanoTime();
+        Map<String, Object> model = dashboardService.profile(owner.getId());
+
+        assertTrue(elapsedMs(started) < 800);
+        assertTrue((Boolean) model.get("partial"));
+        assertEquals(0, model.get("monthlyTransactions"));
+        assertEquals(1, ((List<?>) model.get("cards")).size());
+        assertEquals(fallbacks + 1, fallbacks("profile.monthlyTransactions"));
+    }
+
+    @Test
+    @WithMockCustomUser(phoneNumber = "+7(700)5558104")
+    @DisplayName("A read past the deadline is interrupted instead of running on")
+    void profile_ShouldInterruptLateRead() throws InterruptedException {
+        User owner = userUtil.getCurrentUser();
+        CountDownLatch interrupted = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(5_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return invocation.callRealMethod();
+        }).when(transactionService).getMonthlyTransactionCount(anyLong());
+
+        Map<String, Object> model = dashboardService.profile(owner.getId());
+
+        assertTrue((Boolean) model.get("partial"));
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @WithMockCustomUser(phoneNumber = "+7(700)5558105")
+    @DisplayName("A late read that ignores the interrupt keeps its page permit until it returns")
+    void profile_ShouldHoldPermitUntilLateReadReturns() throws InterruptedException {
+        User owner = userUtil.getCurrentUser();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch returned = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            awaitIgnoringInterrupts(release);
+            returned.countDown();
+            return 0;
+        }).when(transactionService).getMonthlyTransactionCount(anyLong());
+
+        Map<String, Object> model = dashboardService.profile(owner.getId());
+
+        assertTrue((Boolean) model.get("partial"));
+        assertEquals(1, metrics.getActiveReads());
+        release.countDown();
+        assertTrue(returned.await(1, TimeUnit.SECONDS));
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (metrics.getActiveReads() > 0 && System.nanoTime() < until) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertEquals(0, metrics.getActiveReads());
+    }
+
+    @Test
+    @WithMockCustomUser(phoneNumber = "+7(700)5558103")
+    @DisplayName("The page's main read still fails the page")
+    void transactionHistory_ShouldPropagateMainReadFailure() {
+        User owner = userUtil.getCurrentUser();
+        doThrow(new AccessDeniedException("Card does not belong to user"))
+                .when(transactionService).getTransactionHistory(anyLong(), isNull(), isNull(), any(), isNull(), anyInt());
+
+        assertThrows(AccessDeniedException.class, () ->
+                dashboardService.transactionHistory(owner.getId(), null, null, 1L, null, 10));
+    }
+
+    private void slowDown(long delayMs) {
+        doAnswer(slow(delayMs))
+                .when(transactionService).getTransactionHistory(anyLong(), any(), any(), any(), any(), anyInt());
+        doAnswer(slow(delayMs)).when(transactionService).getMonthlyTransactionByUserId(anyLong());
+        doAnswer(slow(delayMs)).when(transactionService).getMonthlyTransactionCount(anyLong());
+        doAnswer(slow(delayMs)).when(transactionService).getTotTransAmount(anyLong());
+        doAnswer(slow(delayMs)).when(cardService).getUserCards(anyLong());
+    }
+
+    private Answer<Object> slow(long delayMs) {
+        return invocation -> {
+            maxRunningReads.accumulateAndGet(runningReads.incrementAndGet(), Math::max);
+            try {
+                TimeUnit.MILLISECONDS.sleep(delayMs);
+                return invocation.callRealMethod();
+            } finally {
+                runningReads.decrementAndGet();
+            }
+        };
+    }
+
+    /**
+     * Blocks like a statement waiting on the database socket, which an interrupt does not abort.
+     */
+    private static void awaitIgnoringInterrupts(CountDownLatch latch) {
+        while (true) {
+            try {
+                latch.await();
+                return;
+            } catch (InterruptedException ignored) {
+                // keep waiting
+            }
+        }
+    }
+
+    private long fallbacks(String fragment) {
+        DashboardMetrics.FragmentTiming timing = metrics.getFragmentTimings().get(fragment);
+        return timing != null ? timing.fallbacks() : 0;
+    }
+
+    private long elapsedMs(long started) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+}
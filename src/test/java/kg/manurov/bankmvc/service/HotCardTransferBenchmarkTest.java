@@ -0,0 +1,131 @@
+package kg.manurov.bankmvc.service;
+
+import kg.manurov.bankmvc.components.CardLockManager;
+import kg.manurov.bankmvc.custom.TestData;
+import kg.manurov.bankmvc.custom.WithMockCustomUser;
+import kg.manurov.bankmvc.dto.transactions.TransferRequest;
+import kg.manurov.bankmvc.entities.User;
+import kg.manurov.bankmvc.repositories.CardRepository;
+import kg.manurov.bankmvc.util.AuthenticatedUserUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput of transfers into a single hot card at 1 to 64 threads. A transfer rejected because
+ * the card stayed busy past the lock timeout is retried, as a client would. Logs transfers/sec,
+ * rejections and the lock wait histogram per level, and checks that every transfer reached the card.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class HotCardTransferBenchmarkTest {
+    private static final int[] THREAD_LEVELS = {1, 4, 16, 64};
+    private static final int TRANSFERS_PER_THREAD = 10;
+    private static final BigDecimal AMOUNT = BigDecimal.ONE;
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private CardLockManager cardLockManager;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private AuthenticatedUserUtil userUtil;
+    @Autowired
+    private TestData testData;
+
+    @Test
+    @WithMockCustomUser(phoneNumber = "+7(700)5550201")
+    @DisplayName("Transfers into one hot card keep every successful credit at any thread count")
+    void transfer_ShouldCreditHotCard_AtEveryThreadCount() throws Exception {
+        User owner = userUtil.getCurrentUser();
+        Long hotCard = testData.card(owner, BigDecimal.ZERO).getId();
+        int expectedCredits = 0;
+
+        for (int threads : THREAD_LEVELS) {
+            List<Long> sources = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                sources.add(testData.card(owner, BigDecimal.valueOf(TRANSFERS_PER_THREAD)).getId());
+            }
+            AtomicInteger succeeded = new AtomicInteger();
+            AtomicInteger rejected = new AtomicInteger();
+            long started = System.nanoTime();
+            runConcurrently(threads, thread -> {
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    while (true) {
+                        try {
+                            transactionService.transferBetweenUserCards(request(sources.get(thread), hotCard));
+                            break;
+                        } catch (CannotAcquireLockException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    succeeded.incrementAndGet();
+                }
+            });
+            double seconds = (System.nanoTime() - started) / 1e9;
+            expectedCredits += succeeded.get();
+
+            log.info("threads={} transfers={} rejected={} transfers/sec={} lock wait histogram (us)={}",
+                    threads, succeeded.get(), rejected.get(), "%.1f".formatted(succeeded.get() / seconds),
+                    cardLockManager.getWaitTimeHistogram());
+            assertEquals(threads * TRANSFERS_PER_THREAD, succeeded.get());
+        }
+
+        BigDecimal balance = cardRepository.findById(hotCard).orElseThrow().getBalance();
+        assertEquals(0, BigDecimal.valueOf(expectedCredits).compareTo(balance));
+    }
+
+    private void runConcurrently(int threads, ThreadBody body) throws Exception {
+        ExecutorService executor = new DelegatingSecurityContextExecutorService(Executors.newFixedThreadPool(threads));
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            int index = thread;
+            futures.add(executor.submit(() -> {
+                start.await();
+                body.run(index);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(120, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    private TransferRequest request(Long fromCardId, Long toCardId) {
+        TransferRequest request = new TransferRequest();
+        request.setFromCardId(fromCardId);
+        request.setToCardId(toCardId);
+        request.setAmount(AMOUNT);
+        request.setDescription("benchmark");
+        return request;
+    }
+
+    @FunctionalInterface
+    private interface ThreadBody {
+        void run(int thread);
+    }
+}
@@ -0,0 +1,95 @@
+package kg.manurov.bankmvc.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import kg.manurov.bankmvc.custom.TestData;
+import kg.manurov.bankmvc.entities.Card;
+import kg.manurov.bankmvc.entities.Transaction;
+import kg.manurov.bankmvc.entities.User;
+import kg.manurov.bankmvc.enums.CardStatus;
+import kg.manurov.bankmvc.enums.TransactionStatus;
+import kg.manurov.bankmvc.repositories.CardRepository;
+import kg.manurov.bankmvc.repositories.TransactionRepo;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bulk writes must go out as JDBC batches: with pooled sequence ids a few hundred inserts or
+ * updates need only a handful of prepared statements instead of one per row.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class JdbcBatchingTest {
+    private static final int ROWS = 200;
+
+    @Autowired
+    private TransactionRepo transactionRepository;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private CardExpiryService cardExpiryService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TestData testData;
+
+    @Test
+    @DisplayName("Bulk transaction inserts are batched")
+    void saveAll_ShouldBatchTransactionInserts() {
+        User owner = testData.user("+7(700)5550401");
+        Card fromCard = testData.card(owner);
+        Card toCard = testData.card(owner);
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            transactions.add(Transaction.builder()
+                    .fromCard(fromCard)
+                    .toCard(toCard)
+                    .amount(BigDecimal.ONE)
+                    .status(TransactionStatus.SUCCESS.name())
+                    .build());
+        }
+
+        Statistics statistics = statistics();
+        transactionRepository.saveAll(transactions);
+
+        assertTrue(statistics.getPrepareStatementCount() < ROWS / 10,
+                "expected batched inserts, got " + statistics.getPrepareStatementCount() + " statements");
+    }
+
+    @Test
+    @DisplayName("Expired card status updates are set-based")
+    void expireCards_ShouldUpdateInBulk() {
+        User owner = testData.user("+7(700)5550402");
+        List<Long> expired = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            expired.add(cardRepository.save(testData.newCard(owner).setExpiryDate(LocalDate.now().minusDays(1))).getId());
+        }
+
+        Statistics statistics = statistics();
+        cardExpiryService.expireCards();
+
+        assertTrue(statistics.getPrepareStatementCount() < ROWS / 10,
+                "expected bulk updates, got " + statistics.getPrepareStatementCount() + " statements");
+        assertEquals(ROWS, cardRepository.findAllById(expired).stream()
+                .filter(card -> CardStatus.EXPIRED.name().equals(card.getStatus()))
+                .count());
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
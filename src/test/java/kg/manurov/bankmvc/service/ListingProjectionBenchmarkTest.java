@@ -0,0 +1,237 @@
+package kg.manurov.bankmvc.service;
+
+import jakarta.persistence.criteria.JoinType;
+import kg.manurov.bankmvc.custom.TestData;
+import kg.manurov.bankmvc.dto.cardApplication.CardApplicationDto;
+import kg.manurov.bankmvc.dto.cards.CardBlockRequestDto;
+import kg.manurov.bankmvc.dto.cards.CardDto;
+import kg.manurov.bankmvc.dto.mappers.CardApplicationMapper;
+import kg.manurov.bankmvc.dto.mappers.CardBlockRequestMapper;
+import kg.manurov.bankmvc.dto.mappers.CardMapper;
+import kg.manurov.bankmvc.dto.mappers.TransactionMapper;
+import kg.manurov.bankmvc.dto.transactions.TransactionDto;
+import kg.manurov.bankmvc.entities.Card;
+import kg.manurov.bankmvc.entities.CardApplication;
+import kg.manurov.bankmvc.entities.CardBlockRequest;
+import kg.manurov.bankmvc.entities.Transaction;
+import kg.manurov.bankmvc.entities.User;
+import kg.manurov.bankmvc.enums.CardRequestStatus;
+import kg.manurov.bankmvc.enums.CardType;
+import kg.manurov.bankmvc.enums.TransactionStatus;
+import kg.manurov.bankmvc.repositories.CardApplicationRepository;
+import kg.manurov.bankmvc.repositories.CardBlockRequestRepository;
+import kg.manurov.bankmvc.repositories.CardRepository;
+import kg.manurov.bankmvc.repositories.TransactionRepo;
+import kg.manurov.bankmvc.repositories.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Listing pages read through projections versus through managed entities mapped afterwards.
+ * Logs heap allocated per page and p99 latency of each path, and checks both render the same rows
+ * and that the projection allocates less.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class ListingProjectionBenchmarkTest {
+    private static final int USERS = 50;
+    private static final int CARDS_PER_USER = 20;
+    private static final int TRANSACTIONS = 5_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int ROUNDS = 200;
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private CardService cardService;
+    @Autowired
+    private CardApplicationService cardApplicationService;
+    @Autowired
+    private CardBlockRequestService cardBlockRequestService;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private CardApplicationRepository cardApplicationRepository;
+    @Autowired
+    private CardBlockRequestRepository cardBlockRequestRepository;
+    @Autowired
+    private TransactionRepo transactionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CardMapper cardMapper;
+    @Autowired
+    private CardApplicationMapper cardApplicationMapper;
+    @Autowired
+    private CardBlockRequestMapper cardBlockRequestMapper;
+    @Autowired
+    private TransactionMapper transactionMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private TestData testData;
+    @Value("${app.page_size}")
+    private int cardPageSize;
+
+    @Test
+    @DisplayName("Projection listings render the same rows as the entity path")
+    void listings_ShouldMatchEntityPath() {
+        List<Card> cards = createData();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Pageable cardPage = PageRequest.of(0, cardPageSize, Sort.by("createdAt"));
+        Pageable requestPage = PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createdAt"));
+        Pageable transactionPage = PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+
+        Supplier<List<CardDto>> cardEntities = () -> readOnly.execute(status ->
+                cardRepository.findAll(cardPage).map(cardMapper::toDto).getContent());
+        Supplier<List<CardDto>> cardViews = () ->
+                cardService.getAllCards(null, null, null, "createdAt", 0).getContent();
+        Supplier<List<CardApplicationDto>> applicationEntities = () -> readOnly.execute(status ->
+                cardApplicationRepository.findAll(requestPage).map(cardApplicationMapper::mapToDto).getContent());
+        Supplier<List<CardApplicationDto>> applicationViews = () ->
+                cardApplicationService.getAllApplications(null, requestPage).getContent();
+        Supplier<List<CardBlockRequestDto>> blockRequestEntities = () -> readOnly.execute(status ->
+                cardBlockRequestRepository.findAll(requestPage).map(cardBlockRequestMapper::mapToDto).getContent());
+        Supplier<List<CardBlockRequestDto>> blockRequestViews = () ->
+                cardBlockRequestService.getAllBlockRequests(requestPage).getContent();
+        Supplier<List<TransactionDto>> transactionEntities = () -> readOnly.execute(status ->
+                transactionRepository.findAll(fetchCards(), transactionPage).map(transactionMapper::toDto).getContent());
+        Supplier<List<TransactionDto>> transactionViews = () ->
+                transactionService.getAllTransactions(null, PAGE_SIZE).getContent();
+
+        report("cards", cards.size(), cardPageSize, cardEntities, cardViews);
+        report("applications", USERS, PAGE_SIZE, applicationEntities, applicationViews);
+        report("block requests", USERS, PAGE_SIZE, blockRequestEntities, blockRequestViews);
+        report("transactions", TRANSACTIONS, PAGE_SIZE, transactionEntities, transactionViews);
+
+        assertEquals(rows(cardEntities.get(), card -> List.of(card.getId(), card.getCardNumber(), card.getOwnerName(),
+                        card.getBalance(), card.getStatus())),
+                rows(cardViews.get(), card -> List.of(card.getId(), card.getCardNumber(), card.getOwnerName(),
+                        card.getBalance(), card.getStatus())));
+        assertEquals(rows(applicationEntities.get(), a -> List.of(a.getId(), a.getUserName(), a.getCreatedAt())),
+                rows(applicationViews.get(), a -> List.of(a.getId(), a.getUserName(), a.getCreatedAt())));
+        assertEquals(rows(blockRequestEntities.get(), r -> List.of(r.getId(), r.getCardNumber(), r.getUserName())),
+                rows(blockRequestViews.get(), r -> List.of(r.getId(), r.getCardNumber(), r.getUserName())));
+        assertEquals(rows(transactionEntities.get(), t -> List.of(t.getId(), t.getFromCardNumber(), t.getToCardNumber())),
+                rows(transactionViews.get(), t -> List.of(t.getId(), t.getFromCardNumber(), t.getToCardNumber())));
+    }
+
+    private <T> List<List<Object>> rows(List<T> page, Function<T, List<Object>> columns) {
+        return page.stream().map(columns).toList();
+    }
+
+    private void report(String listing, int rows, int pageSize, Supplier<?> entities, Supplier<?> views) {
+        Measurement entity = measure(entities);
+        Measurement view = measure(views);
+        log.info("{} ({} rows, page size {}): entity path KB/page={} p99 ms={}, projection KB/page={} p99 ms={}",
+                listing, rows, pageSize, "%.1f".formatted(entity.kilobytesPerPage()), "%.2f".formatted(entity.p99Millis()),
+                "%.1f".formatted(view.kilobytesPerPage()), "%.2f".formatted(view.p99Millis()));
+        assertTrue(view.kilobytesPerPage() < entity.kilobytesPerPage());
+    }
+
+    private Measurement measure(Supplier<?> page) {
+        for (int i = 0; i < ROUNDS / 4; i++) {
+            page.get();
+        }
+        long[] latencies = new long[ROUNDS];
+        long allocatedBefore = THREAD_BEAN.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ROUNDS; i++) {
+            long started = System.nanoTime();
+            page.get();
+            latencies[i] = System.nanoTime() - started;
+        }
+        long allocated = THREAD_BEAN.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        Arrays.sort(latencies);
+        return new Measurement(allocated / 1024.0 / ROUNDS,
+                latencies[(int) Math.ceil(ROUNDS * 0.99) - 1] / 1_000_000.0);
+    }
+
+    private Specification<Transaction> fetchCards() {
+        return (root, query, criteriaBuilder) -> {
+            if (!Long.class.equals(query.getResultType())) {
+                root.fetch("fromCard", JoinType.INNER);
+                root.fetch("toCard", JoinType.INNER);
+            }
+            return null;
+        };
+    }
+
+    private List<Card> createData() {
+        List<Card> cards = new ArrayList<>();
+        List<CardApplication> applications = new ArrayList<>();
+        List<CardBlockRequest> blockRequests = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = userRepository.save(User.builder()
+                    .phoneNumber(String.format("+7(700)5554%03d", i))
+                    .firstName("Listing")
+                    .lastName("Benchmark")
+                    .middleName("User" + i)
+                    .password("password")
+                    .enabled(true)
+                    .build());
+            for (int j = 0; j < CARDS_PER_USER; j++) {
+                cards.add(testData.card(user, BigDecimal.valueOf(j)));
+            }
+            applications.add(CardApplication.builder()
+                    .user(user)
+                    .cardType(CardType.DEBIT.name())
+                    .comment("benchmark")
+                    .status(CardRequestStatus.PENDING.name())
+                    .build());
+        }
+        cardApplicationRepository.saveAll(applications);
+        for (int i = 0; i < USERS; i++) {
+            Card card = cards.get(i * CARDS_PER_USER);
+            blockRequests.add(CardBlockRequest.builder()
+                    .card(card)
+                    .user(card.getOwner())
+                    .reason("benchmark")
+                    .status(CardRequestStatus.PENDING.name())
+                    .build());
+        }
+        cardBlockRequestRepository.saveAll(blockRequests);
+
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            transactions.add(Transaction.builder()
+                    .fromCard(cards.get(i % cards.size()))
+                    .toCard(cards.get((i * 7 + 1) % cards.size()))
+                    .amount(BigDecimal.ONE)
+                    .status(TransactionStatus.SUCCESS.name())
+                    .build());
+        }
+        transactionRepository.saveAll(transactions);
+        return cards;
+    }
+
+    private record Measurement(double kilobytesPerPage, double p99Millis) {
+    }
+}
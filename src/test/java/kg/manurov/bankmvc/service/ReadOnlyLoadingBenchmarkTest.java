@@ -0,0 +1,184 @@
+package kg.manurov.bankmvc.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.JoinType;
+import kg.manurov.bankmvc.custom.TestData;
+import kg.manurov.bankmvc.dto.mappers.TransactionMapper;
+import kg.manurov.bankmvc.dto.transactions.TransactionDto;
+import kg.manurov.bankmvc.entities.Card;
+import kg.manurov.bankmvc.entities.Transaction;
+import kg.manurov.bankmvc.entities.User;
+import kg.manurov.bankmvc.enums.TransactionStatus;
+import kg.manurov.bankmvc.repositories.CardRepository;
+import kg.manurov.bankmvc.repositories.TransactionRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A 1,000-row admin transaction page read four ways: managed entities in a read-write transaction,
+ * managed entities in a read-only one, projection rows, and a stateless scan. Logs heap allocated
+ * per page for each and checks they all render the same rows. The page must hold exactly the
+ * generated transactions, so the test gets its own database.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:read_only_loading;MODE=PostgreSQL;"
+        + "DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;INIT=CREATE SCHEMA IF NOT EXISTS public")
+@Slf4j
+@ActiveProfiles("test")
+@DirtiesContext
+class ReadOnlyLoadingBenchmarkTest {
+    private static final int USERS = 20;
+    private static final int CARDS_PER_USER = 5;
+    private static final int PAGE_SIZE = 1_000;
+    private static final int FETCH_SIZE = 100;
+    private static final int ROUNDS = 50;
+    private static final Pageable PAGE = PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private TransactionRepo transactionRepository;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private TransactionMapper transactionMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private TestData testData;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("Read-only and stateless reads of a 1,000-row page render the same rows with less heap")
+    void transactionPage_ShouldMatchAcrossReadModes() {
+        List<Card> cards = createCards();
+        createTransactions(cards);
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Supplier<List<TransactionDto>> managed = () -> readWrite.execute(status ->
+                transactionRepository.findAll(fetchCards(), PAGE).map(transactionMapper::toDto).getContent());
+        Supplier<List<TransactionDto>> managedReadOnly = () -> readOnly.execute(status ->
+                transactionRepository.findAll(fetchCards(), PAGE).map(transactionMapper::toDto).getContent());
+        Supplier<List<TransactionDto>> projection = () ->
+                transactionRepository.findListPage(null, PAGE_SIZE).stream().map(transactionMapper::toDto).toList();
+        Supplier<List<TransactionDto>> scan = () -> readOnly.execute(status -> {
+            List<TransactionDto> rows = new ArrayList<>(PAGE_SIZE);
+            transactionRepository.scanListRows(FETCH_SIZE, row -> rows.add(transactionMapper.toDto(row)));
+            return rows;
+        });
+
+        double managedKb = kilobytesPerPage(managed);
+        double readOnlyKb = kilobytesPerPage(managedReadOnly);
+        double projectionKb = kilobytesPerPage(projection);
+        double scanKb = kilobytesPerPage(scan);
+        log.info("transaction page of {} rows, KB/page: read-write entities={} read-only entities={} projection={} "
+                 + "stateless scan={}", PAGE_SIZE, "%.1f".formatted(managedKb), "%.1f".formatted(readOnlyKb),
+                "%.1f".formatted(projectionKb), "%.1f".formatted(scanKb));
+
+        List<List<Object>> expected = rows(managed.get());
+        assertEquals(PAGE_SIZE, expected.size());
+        assertEquals(expected, rows(managedReadOnly.get()));
+        assertEquals(expected, rows(projection.get()));
+        assertEquals(expected, rows(scan.get()));
+        assertTrue(readOnlyKb < managedKb);
+        assertTrue(scanKb < managedKb);
+    }
+
+    @Test
+    @DisplayName("Read-only finders load entities without snapshots even in a read-write transaction")
+    void readOnlyFinder_ShouldLoadReadOnlyEntities() {
+        User owner = testData.user(String.format("+7(700)5556%03d", USERS));
+        testData.card(owner);
+        testData.card(owner);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            List<Card> ownedCards = cardRepository.findByOwnerId(owner.getId());
+            assertEquals(2, ownedCards.size());
+            ownedCards.forEach(card -> assertTrue(session.isReadOnly(card)));
+
+            Card loaded = cardRepository.findById(ownedCards.get(0).getId()).orElseThrow();
+            assertTrue(session.isReadOnly(loaded));
+            session.evict(loaded);
+            assertFalse(session.isReadOnly(cardRepository.findById(loaded.getId()).orElseThrow()));
+        });
+    }
+
+    private List<List<Object>> rows(List<TransactionDto> page) {
+        return page.stream()
+                .map(t -> List.<Object>of(t.getId(), t.getFromCardNumber(), t.getToCardNumber(), t.getAmount()))
+                .toList();
+    }
+
+    private double kilobytesPerPage(Supplier<?> page) {
+        for (int i = 0; i < ROUNDS / 5; i++) {
+            page.get();
+        }
+        long allocatedBefore = THREAD_BEAN.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ROUNDS; i++) {
+            page.get();
+        }
+        return (THREAD_BEAN.getCurrentThreadAllocatedBytes() - allocatedBefore) / 1024.0 / ROUNDS;
+    }
+
+    private Specification<Transaction> fetchCards() {
+        return (root, query, criteriaBuilder) -> {
+            if (!Long.class.equals(query.getResultType())) {
+                root.fetch("fromCard", JoinType.INNER);
+                root.fetch("toCard", JoinType.INNER);
+            }
+            return null;
+        };
+    }
+
+    private List<Card> createCards() {
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = testData.user(String.format("+7(700)5556%03d", i));
+            for (int j = 0; j < CARDS_PER_USER; j++) {
+                cards.add(testData.card(user));
+            }
+        }
+        return cards;
+    }
+
+    private void createTransactions(List<Card> cards) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            transactions.add(Transaction.builder()
+                    .fromCard(cards.get(i % cards.size()))
+                    .toCard(cards.get((i * 3 + 1) % cards.size()))
+                    .amount(BigDecimal.valueOf(i))
+                    .status(TransactionStatus.SUCCESS.name())
+                    .build());
+        }
+        transactionRepository.saveAll(transactions);
+    }
+}
@@ -0,0 +1,249 @@
+package kg.manurov.bankmvc.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kg.manurov.bankmvc.custom.TestData;
+import kg.manurov.bankmvc.custom.WithMockCustomUser;
+import kg.manurov.bankmvc.entities.Card;
+import kg.manurov.bankmvc.entities.User;
+import kg.manurov.bankmvc.enums.ExportFormat;
+import kg.manurov.bankmvc.repositories.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exports {@value #DEFAULT_ROWS} generated transactions as CSV into a discarding stream, taking the
+ * live heap after a full GC at every fifth of the rows; pass {@code -Dbenchmark.export_rows=5000000}
+ * for the full-size run. Logs rows per second and the heap samples, and checks the export is
+ * complete and its live heap never grows past {@value #HEAP_BUDGET_MB} MB above where it started.
+ * Also checks the export endpoints: filters, masking, CSV quoting and NDJSON lines. The rows live in
+ * a file database under {@code target}, outside the heap; the cursor is streamed with
+ * {@code LAZY_QUERY_EXECUTION}.
+ */
+@Slf4j
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:file:./target/h2/transaction_export;MODE=PostgreSQL;"
+        + "DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;LAZY_QUERY_EXECUTION=TRUE;"
+        + "INIT=CREATE SCHEMA IF NOT EXISTS public")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@DirtiesContext
+class TransactionExportBenchmarkTest {
+    private static final int DEFAULT_ROWS = 10_000;
+    private static final int ROWS = Integer.getInteger("benchmark.export_rows", DEFAULT_ROWS);
+    private static final long HEAP_BUDGET_MB = 64;
+    private static final long SMALL_IDS = 100_000_000L;
+    private static final Instant GENERATED_FROM = Instant.parse("2027-01-01T00:00:00Z");
+    private static final MemoryMXBean MEMORY_BEAN = ManagementFactory.getMemoryMXBean();
+
+    @Autowired
+    private TransactionExportService exportService;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TestData testData;
+
+    private static final AtomicLong SMALL_ID_SEQUENCE = new AtomicLong(SMALL_IDS);
+
+    @Test
+    @DisplayName("Exported rows are streamed with the live heap staying flat")
+    void export_ShouldStreamInConstantMemory() throws Exception {
+        User owner = testData.user("+7(700)5559001");
+        Card from = testData.card(owner);
+        Card to = testData.card(owner);
+        try {
+            jdbcTemplate.update("INSERT INTO transactions (id, from_card_id, to_card_id, amount, description, status, "
+                                + "created_at, processed_at) "
+                                + "SELECT x, CASE WHEN MOD(x, 2) = 0 THEN CAST(? AS BIGINT) ELSE CAST(? AS BIGINT) END, "
+                                + "CASE WHEN MOD(x, 2) = 0 THEN CAST(? AS BIGINT) ELSE CAST(? AS BIGINT) END, "
+                                + "MOD(x, 100000) / 100.0, 'Transfer #' || x, 'SUCCESS', "
+                                + "DATEADD(SECOND, x, CAST(? AS TIMESTAMP WITH TIME ZONE)), "
+                                + "DATEADD(SECOND, x, CAST(? AS TIMESTAMP WITH TIME ZONE)) "
+                                + "FROM SYSTEM_RANGE(1, CAST(? AS BIGINT)) r(x)",
+                    from.getId(), to.getId(), to.getId(), from.getId(),
+                    Timestamp.from(GENERATED_FROM), Timestamp.from(GENERATED_FROM), ROWS);
+            long expected = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions", Long.class);
+
+            HeapSamplingOutputStream out = new HeapSamplingOutputStream(Math.max(1, expected / 5));
+            long started = System.nanoTime();
+            long exported = exportService.export(null, null, null, null, ExportFormat.CSV, out);
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+            log.info("exported {} rows as CSV in {} ms, {} rows/s, {} MB written, live heap MB at every fifth: {}, "
+                     + "max heap {} MB", exported, elapsedMs, "%.0f".formatted(exported * 1000.0 / Math.max(1, elapsedMs)),
+                    out.bytes >> 20, out.samplesMb, MEMORY_BEAN.getHeapMemoryUsage().getMax() >> 20);
+
+            assertEquals(expected, exported);
+            assertEquals(expected + 1, out.lines);
+            Card newestFrom = ROWS % 2 == 0 ? from : to;
+            Card newestTo = ROWS % 2 == 0 ? to : from;
+            assertTrue(out.firstRow.startsWith(ROWS + "," + newestFrom.getId() + "," + newestFrom.getCardNumber().masked()
+                                               + "," + newestTo.getId() + "," + newestTo.getCardNumber().masked() + ","),
+                    out.firstRow);
+            long baseline = out.samplesMb.get(0);
+            out.samplesMb.forEach(sample -> assertTrue(sample - baseline < HEAP_BUDGET_MB,
+                    "live heap grew from " + baseline + " MB to " + sample + " MB"));
+        } finally {
+            jdbcTemplate.execute("TRUNCATE TABLE transactions");
+        }
+    }
+
+    @Test
+    @WithMockCustomUser(phoneNumber = "+7(700)5559002", role = "ADMIN")
+    @DisplayName("Admin export streams a user's transactions as NDJSON, masked and newest first")
+    void adminExport_ShouldWriteNdjsonLines() throws Exception {
+        User owner = testData.user("+7(700)5559003");
+        Card first = testData.card(owner);
+        Card second = testData.card(owner);
+        Card other = testData.card(testData.user("+7(700)5559004"));
+        insert(first, second, "Rent", "2026-03-01T10:00:00Z");
+        long topUp = insert(other, first, null, "2026-03-05T10:00:00Z");
+        insert(other, other, "Not the owner's", "2026-03-06T10:00:00Z");
+
+        MvcResult started = mockMvc.perform(get("/api/v1/transactions/export")
+                        .param("userId", owner.getId().toString())
+                        .param("format", "ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-ndjson"))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        JsonNode newest = objectMapper.readTree(lines[0]);
+        assertEquals(topUp, newest.get("id").asLong());
+        assertEquals(other.getCardNumber().masked(), newest.get("fromCardNumber").asText());
+        assertEquals(first.getCardNumber().masked(), newest.get("toCardNumber").asText());
+        assertEquals("2026-03-05T10:00:00Z", newest.get("createdAt").asText());
+        assertTrue(newest.get("description").isNull());
+        assertEquals("Rent", objectMapper.readTree(lines[1]).get("description").asText());
+        assertTrue(result.getResponse().getHeader(HttpHeaders.CONTENT_DISPOSITION).contains(".ndjson"));
+    }
+
+    @Test
+    @WithMockCustomUser(phoneNumber = "+7(700)5559005")
+    @DisplayName("User export applies the history filters and quotes CSV text safely")
+    void userExport_ShouldFilterAndQuoteCsv() throws Exception {
+        User owner = userRepository.findByPhoneNumber("+7(700)5559005").orElseThrow();
+        Card first = testData.card(owner);
+        Card second = testData.card(owner);
+        Card other = testData.card(testData.user("+7(700)5559006"));
+        long formula = insert(first, second, "=SUM(A1:A9), \"quoted\"", "2026-03-01T10:00:00Z");
+        insert(other, first, "Top-up", "2026-03-05T10:00:00Z");
+        insert(other, other, "Not the owner's", "2026-03-06T10:00:00Z");
+
+        MvcResult started = mockMvc.perform(get("/transactions/my/export")
+                        .param("cardId", second.getId().toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String csv = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String[] lines = csv.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("id,from_card_id,from_card_number"));
+        assertEquals(formula + "," + first.getId() + "," + first.getCardNumber().masked() + "," + second.getId()
+                     + "," + second.getCardNumber().masked() + ",12.50,\"'=SUM(A1:A9), \"\"quoted\"\"\",SUCCESS,"
+                     + "2026-03-01T10:00:00Z,2026-03-01T10:00:00Z,", lines[1]);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(1, exportService.export(owner.getId(), null, LocalDate.parse("2026-03-02"), null,
+                ExportFormat.CSV, out));
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains(",Top-up,"));
+    }
+
+    private long insert(Card from, Card to, String description, String createdAt) {
+        long id = SMALL_ID_SEQUENCE.incrementAndGet();
+        Timestamp at = Timestamp.from(Instant.parse(createdAt));
+        jdbcTemplate.update("INSERT INTO transactions (id, from_card_id, to_card_id, amount, description, status, "
+                            + "created_at, processed_at) VALUES (?, ?, ?, 12.50, ?, 'SUCCESS', ?, ?)",
+                id, from.getId(), to.getId(), description, at, at);
+        return id;
+    }
+
+    /**
+     * Discards what is written, keeping only counts and the first data row; every {@code sampleEvery}
+     * lines it records the live heap after a full GC.
+     */
+    private static final class HeapSamplingOutputStream extends OutputStream {
+        private final long sampleEvery;
+        private final List<Long> samplesMb = new ArrayList<>();
+        private final StringBuilder firstRowBuilder = new StringBuilder();
+        private long bytes;
+        private long lines;
+        private String firstRow;
+
+        HeapSamplingOutputStream(long sampleEvery) {
+            this.sampleEvery = sampleEvery;
+            sample();
+        }
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (lines == 1 && firstRow == null) {
+                if (b == '\n') {
+                    firstRow = firstRowBuilder.toString();
+                } else {
+                    firstRowBuilder.append((char) b);
+                }
+            }
+            if (b == '\n' && ++lines % sampleEvery == 0) {
+                sample();
+            }
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                write(buffer[i]);
+            }
+        }
+
+        private void sample() {
+            System.gc();
+            samplesMb.add(MEMORY_BEAN.getHeapMemoryUsage().getUsed() >> 20);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package kg.manurov.bankmvc.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import kg.manurov.bankmvc.custom.TestData;
+import kg.manurov.bankmvc.dto.CursorPage;
+import kg.manurov.bankmvc.dto.transactions.TransactionCursor;
+import kg.manurov.bankmvc.dto.transactions.TransactionDto;
+import kg.manurov.bankmvc.entities.Card;
+import kg.manurov.bankmvc.entities.Transaction;
+import kg.manurov.bankmvc.entities.User;
+import kg.manurov.bankmvc.enums.TransactionStatus;
+import kg.manurov.bankmvc.repositories.TransactionRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Page 1 versus page 10,000 of a user's history (page size 2), with the old offset query and with
+ * keyset pagination. Logs average latency of each; keyset pages issue no count query and seek
+ * straight to their position, so the deep page costs what the first one does.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class TransactionHistoryBenchmarkTest {
+    private static final int PAGE_SIZE = 2;
+    private static final int DEEP_PAGE = 9_999;
+    private static final int TRANSACTIONS = (DEEP_PAGE + 1) * PAGE_SIZE;
+    private static final int CHUNK = 5_000;
+    private static final int ROUNDS = 20;
+    private static final Sort ORDER = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private TransactionRepo transactionRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TestData testData;
+
+    @Test
+    @DisplayName("Deep keyset pages cost the same statements as the first page")
+    void history_ShouldNotSlowDown_OnDeepPages() {
+        User user = testData.user("+7(700)5550801");
+        Long userId = user.getId();
+        insertTransactions(testData.card(user), testData.card(user));
+        Specification<Transaction> spec = involving(userId);
+
+        Pageable firstPage = PageRequest.of(0, PAGE_SIZE, ORDER);
+        Pageable deepPage = PageRequest.of(DEEP_PAGE, PAGE_SIZE, ORDER);
+        Transaction lastBeforeDeepPage = transactionRepository
+                .findAll(spec, PageRequest.of(DEEP_PAGE * PAGE_SIZE - 1, 1, ORDER)).getContent().get(0);
+        String deepCursor = TransactionCursor.after(lastBeforeDeepPage).encode();
+
+        double offsetFirst = averageMillis(() -> transactionRepository.findAll(spec, firstPage));
+        double offsetDeep = averageMillis(() -> transactionRepository.findAll(spec, deepPage));
+        double keysetFirst = averageMillis(() -> history(userId, null));
+        double keysetDeep = averageMillis(() -> history(userId, deepCursor));
+        log.info("transactions={} page size={} offset page 1 ms={} offset page {} ms={} keyset page 1 ms={} "
+                 + "keyset page {} ms={}", TRANSACTIONS, PAGE_SIZE, "%.2f".formatted(offsetFirst), DEEP_PAGE + 1,
+                "%.2f".formatted(offsetDeep), "%.2f".formatted(keysetFirst), DEEP_PAGE + 1, "%.2f".formatted(keysetDeep));
+
+        long firstStatements = countStatements(() -> history(userId, null));
+        long deepStatements = countStatements(() -> history(userId, deepCursor));
+        assertEquals(firstStatements, deepStatements);
+        assertEquals(PAGE_SIZE, history(userId, deepCursor).getNumberOfElements());
+    }
+
+    private Specification<Transaction> involving(Long userId) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.or(
+                criteriaBuilder.equal(root.get("fromCard").get("owner").get("id"), userId),
+                criteriaBuilder.equal(root.get("toCard").get("owner").get("id"), userId));
+    }
+
+    private CursorPage<TransactionDto> history(Long userId, String cursor) {
+        return transactionService.getTransactionHistory(userId, null, null, null, cursor, PAGE_SIZE);
+    }
+
+    private double averageMillis(Supplier<?> query) {
+        query.get();
+        long started = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            query.get();
+        }
+        return (System.nanoTime() - started) / 1_000_000.0 / ROUNDS;
+    }
+
+    private long countStatements(Supplier<?> query) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        query.get();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void insertTransactions(Card fromCard, Card toCard) {
+        for (int inserted = 0; inserted < TRANSACTIONS; inserted += CHUNK) {
+            List<Transaction> chunk = new ArrayList<>();
+            for (int i = inserted; i < Math.min(TRANSACTIONS, inserted + CHUNK); i++) {
+                chunk.add(Transaction.builder()
+                        .fromCard(fromCard)
+                        .toCard(toCard)
+                        .amount(BigDecimal.ONE)
+                        .status(TransactionStatus.SUCCESS.name())
+                        .build());
+            }
+            transactionRepository.saveAll(chunk);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package kg.manurov.bankmvc.service;
+
+import kg.manurov.bankmvc.custom.TestData;
+import kg.manurov.bankmvc.custom.WithMockCustomUser;
+import kg.manurov.bankmvc.dto.CursorPage;
+import kg.manurov.bankmvc.dto.transactions.TransactionDto;
+import kg.manurov.bankmvc.entities.Card;
+import kg.manurov.bankmvc.entities.Transaction;
+import kg.manurov.bankmvc.entities.User;
+import kg.manurov.bankmvc.enums.TransactionStatus;
+import kg.manurov.bankmvc.repositories.TransactionRepo;
+import kg.manurov.bankmvc.util.AuthenticatedUserUtil;
+import kg.manurov.bankmvc.util.EncryptionUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TransactionHistoryPaginationTest {
+    private static final int TRANSACTIONS = 25;
+    private static final int PAGE_SIZE = 10;
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private TransactionRepo transactionRepository;
+    @Autowired
+    private TestData testData;
+    @Autowired
+    private AuthenticatedUserUtil userUtil;
+    @Autowired
+    private EncryptionUtil encryptionUtil;
+
+    @Test
+    @DisplayName("Following cursors visits every transaction once, newest first")
+    void history_ShouldVisitEveryTransactionOnce_WhenFollowingCursors() {
+        User user = testData.user("+7(700)5550701");
+        Card fromCard = testData.card(user);
+        Card toCard = testData.card(user);
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            expected.add(createTransaction(fromCard, toCard).getId());
+        }
+        expected.sort(Comparator.reverseOrder());
+
+        List<Long> visited = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<TransactionDto> page = transactionService.getTransactionHistory(
+                    user.getId(), null, null, null, cursor, PAGE_SIZE);
+            page.getContent().forEach(transaction -> visited.add(transaction.getId()));
+            pageSizes.add(page.getNumberOfElements());
+            cursor = page.getNextCursor();
+            assertEquals(cursor != null, page.isHasNext());
+        } while (cursor != null);
+
+        assertEquals(List.of(10, 10, 5), pageSizes);
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    @DisplayName("History of a user without transactions is a single empty last page")
+    void history_ShouldBeEmptyLastPage_WhenNoTransactions() {
+        User user = testData.user("+7(700)5550702");
+
+        CursorPage<TransactionDto> page = transactionService.getTransactionHistory(
+                user.getId(), null, null, null, null, PAGE_SIZE);
+
+        assertTrue(page.getContent().isEmpty());
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    @WithMockCustomUser(phoneNumber = "+7(700)5550703")
+    @DisplayName("The owner sees their own card numbers in full and other cards masked")
+    void history_ShouldRevealOnlyOwnCardNumbers() {
+        User owner = userUtil.getCurrentUser();
+        Card ownCard = testData.card(owner);
+        Card foreignCard = testData.card(testData.user("+7(700)5550704"));
+        createTransaction(ownCard, foreignCard);
+
+        TransactionDto transaction = transactionService.getTransactionHistory(
+                owner.getId(), null, null, null, null, PAGE_SIZE).getContent().get(0);
+
+        assertEquals(encryptionUtil.revealCardNumber(ownCard.getCardNumber()), transaction.getFromCardNumber());
+        assertEquals(foreignCard.getCardNumber().masked(), transaction.getToCardNumber());
+    }
+
+    @Test
+    @WithMockCustomUser(phoneNumber = "+7(700)5550705", role = "ADMIN")
+    @DisplayName("Admins see every card number masked, their own included")
+    void history_ShouldMaskEveryCardNumber_ForAdmin() {
+        User admin = userUtil.getCurrentUser();
+        Card ownCard = testData.card(admin);
+        createTransaction(ownCard, ownCard);
+
+        TransactionDto transaction = transactionService.getTransactionHistory(
+                admin.getId(), null, null, null, null, PAGE_SIZE).getContent().get(0);
+
+        assertEquals(ownCard.getCardNumber().masked(), transaction.getFromCardNumber());
+        assertEquals(ownCard.getCardNumber().masked(), transaction.getToCardNumber());
+    }
+
+    @Test
+    @DisplayName("A tampered cursor is rejected")
+    void history_ShouldReject_InvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> transactionService.getTransactionHistory(
+                1L, null, null, null, "not-a-cursor", PAGE_SIZE));
+    }
+
+    private Transaction createTransaction(Card fromCard, Card toCard) {
+        return transactionRepository.save(Transaction.builder()
+                .fromCard(fromCard)
+                .toCard(toCard)
+                .amount(BigDecimal.ONE)
+                .status(TransactionStatus.SUCCESS.name())
+                .build());
+    }
+}
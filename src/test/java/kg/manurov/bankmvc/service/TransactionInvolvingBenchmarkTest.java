@@ -0,0 +1,116 @@
+package kg.manurov.bankmvc.service;
+
+import kg.manurov.bankmvc.custom.TestData;
+import kg.manurov.bankmvc.entities.Card;
+import kg.manurov.bankmvc.entities.Transaction;
+import kg.manurov.bankmvc.entities.User;
+import kg.manurov.bankmvc.enums.TransactionStatus;
+import kg.manurov.bankmvc.repositories.TransactionRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Latest page of one card's and one user's transactions over a generated dataset of many users,
+ * with the "from or to" OR query and with the UNION ALL query. Logs average latency of each and
+ * checks both return the same rows.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class TransactionInvolvingBenchmarkTest {
+    private static final int USERS = 100;
+    private static final int CARDS_PER_USER = 2;
+    private static final int TRANSACTIONS = 20_000;
+    private static final int CHUNK = 5_000;
+    private static final int PAGE_SIZE = 10;
+    private static final int ROUNDS = 20;
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+
+    @Autowired
+    private TransactionRepo transactionRepository;
+    @Autowired
+    private TestData testData;
+
+    @Test
+    @DisplayName("UNION ALL history returns what the OR query returns")
+    void involving_ShouldMatchOrQuery() {
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = testData.user(String.format("+7(700)5552%03d", i));
+            for (int j = 0; j < CARDS_PER_USER; j++) {
+                cards.add(testData.card(user));
+            }
+        }
+        insertTransactions(cards);
+        Card card = cards.get(0);
+        Long cardId = card.getId();
+        Long userId = card.getOwner().getId();
+
+        Specification<Transaction> byCard = (root, query, criteriaBuilder) -> criteriaBuilder.or(
+                criteriaBuilder.equal(root.get("fromCard").get("id"), cardId),
+                criteriaBuilder.equal(root.get("toCard").get("id"), cardId));
+        Specification<Transaction> byUser = (root, query, criteriaBuilder) -> criteriaBuilder.or(
+                criteriaBuilder.equal(root.get("fromCard").get("owner").get("id"), userId),
+                criteriaBuilder.equal(root.get("toCard").get("owner").get("id"), userId));
+
+        double orCard = averageMillis(() -> transactionRepository.findAll(byCard, FIRST_PAGE));
+        double unionCard = averageMillis(() -> transactionRepository.findInvolving(null, cardId, null, null, null, PAGE_SIZE));
+        double orUser = averageMillis(() -> transactionRepository.findAll(byUser, FIRST_PAGE));
+        double unionUser = averageMillis(() -> transactionRepository.findInvolving(userId, null, null, null, null, PAGE_SIZE));
+        log.info("transactions={} cards={} card history: or ms={} union ms={} user history: or ms={} union ms={}",
+                TRANSACTIONS, cards.size(), "%.2f".formatted(orCard), "%.2f".formatted(unionCard),
+                "%.2f".formatted(orUser), "%.2f".formatted(unionUser));
+
+        assertEquals(ids(transactionRepository.findAll(byCard, FIRST_PAGE).getContent()),
+                ids(transactionRepository.findInvolving(null, cardId, null, null, null, PAGE_SIZE)));
+        assertEquals(ids(transactionRepository.findAll(byUser, FIRST_PAGE).getContent()),
+                ids(transactionRepository.findInvolving(userId, null, null, null, null, PAGE_SIZE)));
+    }
+
+    private List<Long> ids(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getId).toList();
+    }
+
+    private double averageMillis(Supplier<?> query) {
+        query.get();
+        long started = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            query.get();
+        }
+        return (System.nanoTime() - started) / 1_000_000.0 / ROUNDS;
+    }
+
+    private void insertTransactions(List<Card> cards) {
+        Random random = new Random(42);
+        for (int inserted = 0; inserted < TRANSACTIONS; inserted += CHUNK) {
+            List<Transaction> chunk = new ArrayList<>();
+            for (int i = inserted; i < Math.min(TRANSACTIONS, inserted + CHUNK); i++) {
+                chunk.add(Transaction.builder()
+                        .fromCard(cards.get(random.nextInt(cards.size())))
+                        .toCard(cards.get(random.nextInt(cards.size())))
+                        .amount(BigDecimal.ONE)
+                        .status(TransactionStatus.SUCCESS.name())
+                        .build());
+            }
+            transactionRepository.saveAll(chunk);
+        }
+    }
+}
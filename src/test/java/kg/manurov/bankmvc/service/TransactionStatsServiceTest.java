@@ -0,0 +1,122 @@
+package kg.manurov.bankmvc.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import kg.manurov.bankmvc.custom.TestData;
+import kg.manurov.bankmvc.custom.WithMockCustomUser;
+import kg.manurov.bankmvc.dto.transactions.TransferRequest;
+import kg.manurov.bankmvc.entities.Card;
+import kg.manurov.bankmvc.entities.Transaction;
+import kg.manurov.bankmvc.entities.User;
+import kg.manurov.bankmvc.enums.TransactionStatus;
+import kg.manurov.bankmvc.repositories.TransactionRepo;
+import kg.manurov.bankmvc.util.AuthenticatedUserUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TransactionStatsServiceTest {
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private TransactionStatsService transactionStatsService;
+    @Autowired
+    private AuthenticatedUserUtil userUtil;
+    @Autowired
+    private TestData testData;
+    @Autowired
+    private TransactionRepo transactionRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    @WithMockCustomUser(phoneNumber = "+7(700)5550601")
+    @DisplayName("Transfers keep the user statistics current and a rebuild reproduces them")
+    void transfers_ShouldMaintainStats_AndMatchRebuild() {
+        User owner = userUtil.getCurrentUser();
+        Long userId = owner.getId();
+        Long first = testData.card(owner, INITIAL_BALANCE).getId();
+        Long second = testData.card(owner, INITIAL_BALANCE).getId();
+        assertEquals(0, transactionStatsService.getTransactionCount(userId));
+        assertNull(transactionStatsService.getTotalAmount(userId));
+
+        transactionService.transferBetweenUserCards(request(first, second, "10.00"));
+        transactionService.transferBetweenUserCards(request(second, first, "2.50"));
+        transactionService.transferBatch(List.of(request(first, second, "1.00"), request(first, first, "4.00")));
+
+        assertStats(userId, 4, "17.50");
+
+        transactionStatsService.rebuild();
+
+        assertStats(userId, 4, "17.50");
+    }
+
+    /**
+     * Half an hour before midnight UTC is already the next day east of Greenwich; the rebuild must
+     * still put the transaction in the UTC month the incremental update uses, whatever the JVM zone.
+     */
+    @Test
+    @DisplayName("A rebuild buckets a transaction near a month boundary into its UTC month")
+    void rebuild_ShouldBucketByUtcMonth_NearMonthBoundary() {
+        TimeZone defaultZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Bishkek"));
+        try {
+            User owner = testData.user("+7(700)5550602");
+            Card card = testData.card(owner);
+            Instant createdAt = Instant.parse("2026-01-31T23:30:00Z");
+            Long transactionId = transactionRepository.save(Transaction.builder()
+                    .fromCard(card)
+                    .toCard(card)
+                    .amount(BigDecimal.ONE)
+                    .status(TransactionStatus.SUCCESS.name())
+                    .build()).getId();
+            transactionTemplate.executeWithoutResult(status -> entityManager
+                    .createQuery("UPDATE Transaction t SET t.createdAt = :createdAt WHERE t.id = :id")
+                    .setParameter("createdAt", createdAt)
+                    .setParameter("id", transactionId)
+                    .executeUpdate());
+
+            transactionStatsService.rebuild();
+
+            YearMonth utcMonth = YearMonth.from(createdAt.atZone(ZoneOffset.UTC));
+            assertEquals(1, transactionStatsService.getMonthlyTransactionCount(owner.getId(), utcMonth));
+            assertEquals(0, transactionStatsService.getMonthlyTransactionCount(owner.getId(), utcMonth.plusMonths(1)));
+        } finally {
+            TimeZone.setDefault(defaultZone);
+        }
+    }
+
+    private void assertStats(Long userId, int count, String amount) {
+        assertEquals(count, transactionStatsService.getTransactionCount(userId));
+        assertEquals(0, new BigDecimal(amount).compareTo(transactionStatsService.getTotalAmount(userId)));
+        assertEquals(count, transactionStatsService.getMonthlyTransactionCount(userId, YearMonth.now(ZoneOffset.UTC)));
+    }
+
+    private TransferRequest request(Long fromCardId, Long toCardId, String amount) {
+        TransferRequest request = new TransferRequest();
+        request.setFromCardId(fromCardId);
+        request.setToCardId(toCardId);
+        request.setAmount(new BigDecimal(amount));
+        request.setDescription("stats");
+        return request;
+    }
+}
@@ -0,0 +1,134 @@
+package kg.manurov.bankmvc.service;
+
+import kg.manurov.bankmvc.custom.TestData;
+import kg.manurov.bankmvc.custom.WithMockCustomUser;
+import kg.manurov.bankmvc.dto.transactions.TransferRequest;
+import kg.manurov.bankmvc.entities.Card;
+import kg.manurov.bankmvc.entities.Transaction;
+import kg.manurov.bankmvc.entities.User;
+import kg.manurov.bankmvc.enums.TransactionStatus;
+import kg.manurov.bankmvc.repositories.CardRepository;
+import kg.manurov.bankmvc.repositories.TransactionRepo;
+import kg.manurov.bankmvc.util.AuthenticatedUserUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hammers one pair of cards with transfers in both directions from many threads and checks that
+ * no update is lost: the total balance is conserved and each card reflects exactly the transfers
+ * that reported success.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TransferConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 25;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("7.00");
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private TransactionRepo transactionRepository;
+    @Autowired
+    private AuthenticatedUserUtil userUtil;
+    @Autowired
+    private TestData testData;
+
+    @Test
+    @WithMockCustomUser(phoneNumber = "+7(700)5550101")
+    @DisplayName("Concurrent transfers over the same card pair conserve the total balance")
+    void transfer_ShouldConserveTotalBalance_UnderContention() throws Exception {
+        User owner = userUtil.getCurrentUser();
+        Long first = testData.card(owner, INITIAL_BALANCE).getId();
+        Long second = testData.card(owner, INITIAL_BALANCE).getId();
+
+        AtomicInteger firstToSecond = new AtomicInteger();
+        AtomicInteger secondToFirst = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = new DelegatingSecurityContextExecutorService(Executors.newFixedThreadPool(THREADS));
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            boolean forward = thread % 2 == 0;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    try {
+                        if (forward) {
+                            transactionService.transferBetweenUserCards(request(first, second));
+                            firstToSecond.incrementAndGet();
+                        } else {
+                            transactionService.transferBetweenUserCards(request(second, first));
+                            secondToFirst.incrementAndGet();
+                        }
+                    } catch (RuntimeException e) {
+                        // a transfer that gave up after its retries changes no balance
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        BigDecimal firstBalance = cardRepository.findById(first).orElseThrow().getBalance();
+        BigDecimal secondBalance = cardRepository.findById(second).orElseThrow().getBalance();
+        BigDecimal net = AMOUNT.multiply(BigDecimal.valueOf(secondToFirst.get() - firstToSecond.get()));
+
+        assertEquals(0, INITIAL_BALANCE.add(INITIAL_BALANCE).compareTo(firstBalance.add(secondBalance)));
+        assertEquals(0, INITIAL_BALANCE.add(net).compareTo(firstBalance));
+        assertTrue(firstToSecond.get() + secondToFirst.get() > 0);
+    }
+
+    @Test
+    @WithMockCustomUser(phoneNumber = "+7(700)5550102")
+    @DisplayName("Refunding a top-up locks its single card once and takes the amount back")
+    void refund_ShouldReverseTopUp_WhenFromAndToCardAreSame() {
+        Card card = testData.card(userUtil.getCurrentUser(), INITIAL_BALANCE);
+        Transaction topUp = transactionRepository.save(Transaction.builder()
+                .fromCard(card)
+                .toCard(card)
+                .amount(AMOUNT)
+                .description("top-up")
+                .status(TransactionStatus.SUCCESS.name())
+                .build());
+
+        transactionService.refundTransaction(topUp.getId());
+
+        assertEquals(0, INITIAL_BALANCE.subtract(AMOUNT).compareTo(
+                cardRepository.findById(card.getId()).orElseThrow().getBalance()));
+        assertEquals(TransactionStatus.REFUNDED.name(),
+                transactionRepository.findById(topUp.getId()).orElseThrow().getStatus());
+    }
+
+    private TransferRequest request(Long fromCardId, Long toCardId) {
+        TransferRequest request = new TransferRequest();
+        request.setFromCardId(fromCardId);
+        request.setToCardId(toCardId);
+        request.setAmount(AMOUNT);
+        request.setDescription("stress");
+        return request;
+    }
+}
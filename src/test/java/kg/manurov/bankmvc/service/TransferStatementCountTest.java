@@ -0,0 +1,90 @@
+package kg.manurov.bankmvc.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import kg.manurov.bankmvc.custom.TestData;
+import kg.manurov.bankmvc.custom.WithMockCustomUser;
+import kg.manurov.bankmvc.dto.transactions.TransferRequest;
+import kg.manurov.bankmvc.entities.Card;
+import kg.manurov.bankmvc.entities.User;
+import kg.manurov.bankmvc.repositories.CardRepository;
+import kg.manurov.bankmvc.util.AuthenticatedUserUtil;
+import kg.manurov.bankmvc.util.CryptoEngine;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * A transfer loads its two cards once, with the single locking query, and reuses them for
+ * validation, the balance update and the transaction insert; it never decrypts a card number.
+ * The spied {@link CryptoEngine} forces a separate context, so it gets its own database too.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:transfer_statements;MODE=PostgreSQL;"
+        + "DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;INIT=CREATE SCHEMA IF NOT EXISTS public")
+@ActiveProfiles("test")
+@DirtiesContext
+class TransferStatementCountTest {
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("100.00");
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private AuthenticatedUserUtil userUtil;
+    @SpyBean
+    private CryptoEngine cryptoEngine;
+    @Autowired
+    private TestData testData;
+
+    @Test
+    @WithMockCustomUser(phoneNumber = "+7(700)5550301")
+    @DisplayName("Transfer reads each card once and decrypts nothing")
+    void transfer_ShouldLoadCardsOnceWithoutDecrypting() {
+        User owner = userUtil.getCurrentUser();
+        Long from = testData.card(owner, INITIAL_BALANCE).getId();
+        Long to = testData.card(owner, INITIAL_BALANCE).getId();
+        // the user's first transfer creates their statistics rows; later ones only update them
+        transactionService.transferBetweenUserCards(request(from, to, new BigDecimal("10.00")));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        clearInvocations(cryptoEngine);
+
+        transactionService.transferBetweenUserCards(request(from, to, new BigDecimal("30.00")));
+
+        assertEquals(2, statistics.getEntityStatistics(Card.class.getName()).getLoadCount());
+        // lock query, one batch with both balance updates, the transaction insert and two statistics updates
+        assertEquals(5, statistics.getPrepareStatementCount());
+        verify(cryptoEngine, never()).decrypt(any());
+        verify(cryptoEngine, never()).decryptAll(anyList());
+
+        assertEquals(0, new BigDecimal("60.00").compareTo(cardRepository.findById(from).orElseThrow().getBalance()));
+        assertEquals(0, new BigDecimal("140.00").compareTo(cardRepository.findById(to).orElseThrow().getBalance()));
+    }
+
+    private TransferRequest request(Long fromCardId, Long toCardId, BigDecimal amount) {
+        TransferRequest request = new TransferRequest();
+        request.setFromCardId(fromCardId);
+        request.setToCardId(toCardId);
+        request.setAmount(amount);
+        request.setDescription("statement count");
+        return request;
+    }
+}
@@ -0,0 +1,111 @@
+package kg.manurov.bankmvc.service;
+
+import kg.manurov.bankmvc.util.PermitDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 200, 2,000 and 20,000 simulated users, each waiting {@value #REMOTE_WAIT_MS} ms on something other
+ * than the database and then reading through the JDBC permit queue, served by a pool the size of
+ * Tomcat's default and by a virtual thread per user. Logs elapsed time, users per second and the
+ * longest permit queue for each, and checks that every user was served and every permit returned.
+ * The virtual-thread half needs Java 21 (the {@code virtual-threads} build profile) and is skipped
+ * on older runtimes. Expects an empty transactions table, so the test gets its own database.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:virtual_thread_load;MODE=PostgreSQL;"
+        + "DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;INIT=CREATE SCHEMA IF NOT EXISTS public")
+@Slf4j
+@Tag("benchmark")
+@ActiveProfiles("test")
+@DirtiesContext
+class VirtualThreadLoadBenchmarkTest {
+    private static final int[] USERS = {200, 2_000, 20_000};
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int PERMITS = 10;
+    private static final long REMOTE_WAIT_MS = 10;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    @DisplayName("A pool of Tomcat's size serves the load with connections bounded by permits")
+    void platformThreads_ShouldServeLoad() throws Exception {
+        for (int users : USERS) {
+            Load load = run(users, Executors.newFixedThreadPool(TOMCAT_MAX_THREADS));
+            report("platform pool", users, load);
+        }
+    }
+
+    @Test
+    @DisplayName("A virtual thread per user serves the same load faster with the same permits")
+    void virtualThreads_ShouldServeLoadFaster() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need Java 21");
+        for (int users : USERS) {
+            Load platform = run(users, Executors.newFixedThreadPool(TOMCAT_MAX_THREADS));
+            Load virtual = run(users, virtualThreadPerTaskExecutor());
+            report("platform pool", users, platform);
+            report("virtual threads", users, virtual);
+            if (users > TOMCAT_MAX_THREADS) {
+                assertTrue(virtual.elapsedMs() < platform.elapsedMs());
+            }
+        }
+    }
+
+    private Load run(int users, ExecutorService executor) throws Exception {
+        PermitDataSource permits = new PermitDataSource(dataSource, PERMITS, Duration.ofSeconds(30));
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(permits);
+        AtomicInteger longestQueue = new AtomicInteger();
+        List<Future<Long>> futures = new ArrayList<>(users);
+        long started = System.nanoTime();
+        for (int i = 0; i < users; i++) {
+            futures.add(executor.submit(() -> {
+                Thread.sleep(REMOTE_WAIT_MS);
+                longestQueue.accumulateAndGet(permits.getQueueLength(), Math::max);
+                return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions", Long.class);
+            }));
+        }
+        for (Future<Long> future : futures) {
+            assertEquals(0L, future.get(60, TimeUnit.SECONDS));
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        executor.shutdown();
+        assertEquals(PERMITS, permits.getAvailablePermits());
+        return new Load(elapsedMs, longestQueue.get());
+    }
+
+    private void report(String mode, int users, Load load) {
+        log.info("{}, {} users: {} ms, {} users/s, longest permit queue {}", mode, users, load.elapsedMs(),
+                "%.0f".formatted(users * 1000.0 / Math.max(1, load.elapsedMs())), load.longestQueue());
+    }
+
+    /**
+     * Looked up reflectively so the test still compiles for Java 17.
+     */
+    private static ExecutorService virtualThreadPerTaskExecutor() throws ReflectiveOperationException {
+        return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    }
+
+    private record Load(long elapsedMs, int longestQueue) {
+    }
+}
@@ -1,10 +1,13 @@
 
 package kg.manurov.bankmvc.unit;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kg.manurov.bankmvc.components.OperationTimer;
 import kg.manurov.bankmvc.dto.cardApplication.CardApplicationDto;
 import kg.manurov.bankmvc.dto.cardApplication.CardApplicationRequest;
 import kg.manurov.bankmvc.dto.cards.CardDto;
 import kg.manurov.bankmvc.dto.mappers.CardApplicationMapper;
+import kg.manurov.bankmvc.dto.projections.CardApplicationListView;
 import kg.manurov.bankmvc.entities.CardApplication;
 import kg.manurov.bankmvc.entities.User;
 import kg.manurov.bankmvc.enums.CardRequestStatus;
@@ -18,6 +21,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
@@ -47,6 +51,9 @@ class CardApplicationServiceTest {
     @Mock
     private CardService cardService;
 
+    @Spy
+    private OperationTimer operationTimer = new OperationTimer(new SimpleMeterRegistry());
+
     @InjectMocks
     private CardApplicationService cardApplicationService;
 
@@ -177,18 +184,19 @@ class CardApplicationServiceTest {
     void getAllApplications_ShouldReturnFilteredApplications_WhenStatusProvided() {
         String status = "PENDING";
         Pageable pageable = PageRequest.of(0, 10);
-        List<CardApplication> applications = List.of(testApplication);
-        Page<CardApplication> applicationPage = new PageImpl<>(applications, pageable, applications.size());
+        CardApplicationListView view = new CardApplicationListView(1L, 1L, "John", "Doe", null,
+                "DEBIT", "comment", status, Instant.now(), null);
+        Page<CardApplicationListView> applicationPage = new PageImpl<>(List.of(view), pageable, 1);
 
-        when(cardApplicationRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(applicationPage);
-        when(cardApplicationMapper.mapToDto(testApplication)).thenReturn(testApplicationDto);
+        when(cardApplicationRepository.findListPage(status, pageable)).thenReturn(applicationPage);
+        when(cardApplicationMapper.mapToDto(view)).thenReturn(testApplicationDto);
 
         Page<CardApplicationDto> result = cardApplicationService.getAllApplications(status, pageable);
 
         assertNotNull(result);
         assertFalse(result.isEmpty());
         assertEquals(1, result.getTotalElements());
-        verify(cardApplicationRepository, times(1)).findAll(any(Specification.class), eq(pageable));
+        verify(cardApplicationRepository, times(1)).findListPage(status, pageable);
     }
 
     @Test
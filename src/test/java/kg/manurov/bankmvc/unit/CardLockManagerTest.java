@@ -0,0 +1,125 @@
+package kg.manurov.bankmvc.unit;
+
+import kg.manurov.bankmvc.components.CardLockManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CardLockManager Tests")
+class CardLockManagerTest {
+
+    private CardLockManager lockManager;
+
+    @BeforeEach
+    void setUp() {
+        lockManager = new CardLockManager();
+        ReflectionTestUtils.setField(lockManager, "stripeCount", 16);
+        ReflectionTestUtils.setField(lockManager, "lockTimeoutMs", 200L);
+        ReflectionTestUtils.invokeMethod(lockManager, "init");
+    }
+
+    @Test
+    @DisplayName("Should let only one caller at a time work on the same card")
+    void withLocks_ShouldSerializeSameCard() throws Exception {
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        Future<?>[] futures = new Future<?>[4];
+        for (int i = 0; i < futures.length; i++) {
+            long otherCard = i + 2;
+            futures[i] = executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < 100; j++) {
+                    lockManager.withLocks(() -> {
+                        maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                        inside.decrementAndGet();
+                        return null;
+                    }, otherCard, 1L);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(1, maxInside.get());
+        assertEquals(400L, lockManager.getWaitTimeHistogram().values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    @DisplayName("Should take a stripe once when both cards share it")
+    void withLocks_ShouldAllowSameCardTwice() {
+        assertEquals("ok", lockManager.withLocks(() -> "ok", 7L, 7L));
+    }
+
+    @Test
+    @DisplayName("Should give up after the lock timeout")
+    void withLocks_ShouldTimeOut_WhenStripeIsHeld() throws Exception {
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> lockManager.withLocks(() -> {
+            held.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }, 5L));
+        holder.start();
+        held.await();
+
+        assertThrows(CannotAcquireLockException.class, () -> lockManager.withLocks(() -> null, 5L));
+
+        release.countDown();
+        holder.join();
+    }
+
+    @Test
+    @DisplayName("Should give up after the lock timeout however many callers are queued ahead")
+    void withLocks_ShouldNotWaitLonger_WhenQueueIsLong() throws Exception {
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> lockManager.withLocks(() -> {
+            held.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }, 5L));
+        holder.start();
+        held.await();
+        ExecutorService waiters = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            waiters.submit(() -> lockManager.withLocks(() -> null, 5L));
+        }
+        TimeUnit.MILLISECONDS.sleep(50);
+
+        long started = System.nanoTime();
+        assertThrows(CannotAcquireLockException.class, () -> lockManager.withLocks(() -> null, 5L));
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertTrue(waitedMs < 400, "waited " + waitedMs + " ms");
+        release.countDown();
+        holder.join();
+        waiters.shutdown();
+        assertTrue(waiters.awaitTermination(1, TimeUnit.SECONDS));
+    }
+}
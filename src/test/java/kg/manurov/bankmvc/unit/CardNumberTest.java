@@ -0,0 +1,63 @@
+package kg.manurov.bankmvc.unit;
+
+import kg.manurov.bankmvc.entities.CardNumber;
+import kg.manurov.bankmvc.entities.CipherText;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CardNumber Tests")
+class CardNumberTest {
+
+    @Test
+    @DisplayName("Should mask from the last four digits without decrypting")
+    void masked_ShouldUseLastFour_WithoutDecryption() {
+        CardNumber cardNumber = CardNumber.ofPlainText("4000123412345678");
+
+        assertEquals("5678", cardNumber.getLastFour());
+        assertEquals("**** **** **** 5678", cardNumber.masked());
+    }
+
+    @Test
+    @DisplayName("Should skip grouping spaces and reject short numbers")
+    void lastFourOf_ShouldIgnoreWhitespace() {
+        assertEquals("5678", CardNumber.lastFourOf("4000 1234 1234 56 78"));
+        assertNull(CardNumber.lastFourOf("12 3"));
+        assertEquals("****", CardNumber.mask(CardNumber.lastFourOf(null)));
+    }
+
+    @Test
+    @DisplayName("Should decrypt a stored value once and keep the ciphertext untouched")
+    void reveal_ShouldDecryptOnce() {
+        CipherText cipherText = CipherText.ofStored("enc:1:cipher");
+        AtomicInteger decryptions = new AtomicInteger();
+
+        assertEquals("4000123412345678", cipherText.reveal(c -> {
+            decryptions.incrementAndGet();
+            return "4000123412345678";
+        }));
+        cipherText.reveal(c -> {
+            decryptions.incrementAndGet();
+            return "unexpected";
+        });
+
+        assertEquals(1, decryptions.get());
+        assertEquals("enc:1:cipher", cipherText.seal(plain -> "enc:1:other"));
+    }
+
+    @Test
+    @DisplayName("Should encrypt a new value once however often it is written")
+    void seal_ShouldEncryptOnce() {
+        CipherText cipherText = CipherText.ofPlainText("4000123412345678");
+        AtomicInteger encryptions = new AtomicInteger();
+
+        assertEquals("enc:1:1", cipherText.seal(plain -> "enc:1:" + encryptions.incrementAndGet()));
+        assertEquals("enc:1:1", cipherText.seal(plain -> "enc:1:" + encryptions.incrementAndGet()));
+
+        assertEquals(1, encryptions.get());
+        assertEquals("4000123412345678", cipherText.reveal(c -> "unexpected"));
+    }
+}
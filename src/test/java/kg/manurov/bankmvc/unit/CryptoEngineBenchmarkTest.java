@@ -0,0 +1,139 @@
+package kg.manurov.bankmvc.unit;
+
+import kg.manurov.bankmvc.util.CryptoEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Decrypting a page of {@value #CARDS} card numbers the way {@code EncryptionUtil} used to, deriving
+ * the key and looking up a {@link Cipher} for every value, versus {@link CryptoEngine#decryptAll}.
+ * Both read the same pre-envelope ciphertexts. Logs decryptions/sec and bytes allocated per
+ * decryption of each, and checks they return the same numbers and that the engine allocates less.
+ */
+@Slf4j
+@Tag("benchmark")
+@DisplayName("CryptoEngine Benchmark")
+class CryptoEngineBenchmarkTest {
+    private static final String KEY = "PLUG";
+    private static final String TRANSFORMATION = "AES/CBC/PKCS5Padding";
+    private static final int IV_LENGTH = 16;
+    private static final int CARDS = 10_000;
+    private static final int ROUNDS = 5;
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    @DisplayName("Bulk decryption beats per-call key derivation and cipher lookup")
+    void decryptAll_ShouldOutperformPerCallDecryption() {
+        CryptoEngine engine = new CryptoEngine();
+        ReflectionTestUtils.setField(engine, "encryptionKey", KEY);
+        ReflectionTestUtils.setField(engine, "keyId", "1");
+        ReflectionTestUtils.setField(engine, "retiredKeys", List.of());
+        ReflectionTestUtils.setField(engine, "indexKey", KEY);
+        ReflectionTestUtils.setField(engine, "poolSize", 4);
+        ReflectionTestUtils.invokeMethod(engine, "init");
+
+        List<String> plain = new ArrayList<>(CARDS);
+        List<String> encrypted = new ArrayList<>(CARDS);
+        for (int i = 0; i < CARDS; i++) {
+            plain.add(String.format("4000%012d", i));
+            encrypted.add(encryptPerCall(plain.get(i)));
+        }
+
+        Supplier<List<String>> perCall = () -> {
+            List<String> result = new ArrayList<>(CARDS);
+            for (String value : encrypted) {
+                result.add(decryptPerCall(value));
+            }
+            return result;
+        };
+        Supplier<List<String>> bulk = () -> engine.decryptAll(encrypted);
+
+        assertEquals(plain, perCall.get());
+        assertEquals(plain, bulk.get());
+        Measurement before = measure(perCall);
+        Measurement after = measure(bulk);
+        log.info("{} decryptions: per call ops/sec={} bytes/op={}, decryptAll ops/sec={} bytes/op={}",
+                CARDS, "%.0f".formatted(before.opsPerSecond()), "%.0f".formatted(before.bytesPerOp()),
+                "%.0f".formatted(after.opsPerSecond()), "%.0f".formatted(after.bytesPerOp()));
+
+        assertTrue(after.bytesPerOp() < before.bytesPerOp());
+    }
+
+    private Measurement measure(Supplier<List<String>> page) {
+        for (int i = 0; i < ROUNDS; i++) {
+            page.get();
+        }
+        long[] nanos = new long[ROUNDS];
+        long allocatedBefore = THREAD_BEAN.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ROUNDS; i++) {
+            long started = System.nanoTime();
+            page.get();
+            nanos[i] = System.nanoTime() - started;
+        }
+        long allocated = THREAD_BEAN.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        Arrays.sort(nanos);
+        return new Measurement(CARDS / (nanos[ROUNDS / 2] / 1e9), (double) allocated / ROUNDS / CARDS);
+    }
+
+    private static String encryptPerCall(String value) {
+        try {
+            byte[] iv = new byte[IV_LENGTH];
+            new SecureRandom().nextBytes(iv);
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, deriveKey(), new IvParameterSpec(iv));
+            byte[] encrypted = cipher.doFinal(value.getBytes(StandardCharsets.UTF_8));
+            byte[] withIv = new byte[IV_LENGTH + encrypted.length];
+            System.arraycopy(iv, 0, withIv, 0, IV_LENGTH);
+            System.arraycopy(encrypted, 0, withIv, IV_LENGTH, encrypted.length);
+            return Base64.getEncoder().encodeToString(withIv);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The former {@code EncryptionUtil.decryptCardNumber}: key derivation and cipher lookup on
+     * every call.
+     */
+    private static String decryptPerCall(String value) {
+        try {
+            byte[] withIv = Base64.getDecoder().decode(value);
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, deriveKey(), new IvParameterSpec(Arrays.copyOfRange(withIv, 0, IV_LENGTH)));
+            return new String(cipher.doFinal(Arrays.copyOfRange(withIv, IV_LENGTH, withIv.length)),
+                    StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static SecretKey deriveKey() throws GeneralSecurityException {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(KEY.getBytes(StandardCharsets.UTF_8));
+        return new SecretKeySpec(Arrays.copyOf(digest, 16), "AES");
+    }
+
+    private record Measurement(double opsPerSecond, double bytesPerOp) {
+    }
+}
@@ -0,0 +1,91 @@
+package kg.manurov.bankmvc.unit;
+
+import kg.manurov.bankmvc.util.CryptoEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CryptoEngine Tests")
+class CryptoEngineTest {
+
+    private CryptoEngine cryptoEngine;
+
+    @BeforeEach
+    void setUp() {
+        cryptoEngine = createEngine(List.of(), "PLUG", "1");
+    }
+
+    private CryptoEngine createEngine(List<String> retiredKeys, String key, String keyId) {
+        CryptoEngine engine = new CryptoEngine();
+        ReflectionTestUtils.setField(engine, "encryptionKey", key);
+        ReflectionTestUtils.setField(engine, "keyId", keyId);
+        ReflectionTestUtils.setField(engine, "retiredKeys", retiredKeys);
+        ReflectionTestUtils.setField(engine, "indexKey", "PLUG");
+        ReflectionTestUtils.setField(engine, "poolSize", 4);
+        ReflectionTestUtils.invokeMethod(engine, "init");
+        return engine;
+    }
+
+    @Test
+    @DisplayName("Should decrypt what it encrypted with a fresh IV every time")
+    void encrypt_ShouldRoundTrip_WithRandomIv() {
+        String first = cryptoEngine.encrypt("4000123412341234");
+        String second = cryptoEngine.encrypt("4000123412341234");
+
+        assertNotEquals(first, second);
+        assertEquals("4000123412341234", cryptoEngine.decrypt(first));
+        assertEquals("4000123412341234", cryptoEngine.decrypt(second));
+    }
+
+    @Test
+    @DisplayName("Should decrypt a page in bulk and return null for broken entries")
+    void decryptAll_ShouldKeepOrder_AndSkipBrokenEntries() {
+        List<String> plain = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            plain.add("40001234123412" + String.format("%02d", i));
+        }
+        List<String> encrypted = new ArrayList<>(cryptoEngine.encryptAll(plain));
+        encrypted.set(5, "broken");
+
+        List<String> decrypted = cryptoEngine.decryptAll(encrypted);
+
+        assertEquals(plain.size(), decrypted.size());
+        assertNull(decrypted.get(5));
+        assertEquals(plain.get(99), decrypted.get(99));
+    }
+
+    @Test
+    @DisplayName("Should produce a deterministic keyed hash")
+    void hmac_ShouldBeDeterministic() {
+        assertEquals(cryptoEngine.hmac("4000123412341234"), cryptoEngine.hmac("4000123412341234"));
+        assertNotEquals(cryptoEngine.hmac("4000123412341234"), cryptoEngine.hmac("4000123412341235"));
+        assertEquals(64, cryptoEngine.hmac("4000123412341234").length());
+    }
+
+    @Test
+    @DisplayName("Should wrap ciphertexts in a versioned envelope")
+    void encrypt_ShouldProduceEnvelope_WithCurrentKeyId() {
+        String encrypted = cryptoEngine.encrypt("4000123412341234");
+
+        assertTrue(encrypted.startsWith(cryptoEngine.getEnvelopePrefix()));
+        assertTrue(cryptoEngine.isEnvelope(encrypted));
+        assertFalse(cryptoEngine.isEnvelope("4000123412341234"));
+    }
+
+    @Test
+    @DisplayName("Should decrypt values written with a retired key after rotation")
+    void decrypt_ShouldUseRetiredKey_AfterRotation() {
+        String encryptedWithOldKey = cryptoEngine.encrypt("4000123412341234");
+        CryptoEngine rotated = createEngine(List.of("1:PLUG"), "NEW-KEY", "2");
+
+        assertEquals("4000123412341234", rotated.decrypt(encryptedWithOldKey));
+        assertTrue(rotated.encrypt("4000123412341234").startsWith("enc:2:"));
+        assertEquals(cryptoEngine.hmac("4000123412341234"), rotated.hmac("4000123412341234"));
+    }
+}
@@ -0,0 +1,107 @@
+package kg.manurov.bankmvc.unit;
+
+import kg.manurov.bankmvc.util.PermitDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("PermitDataSource Tests")
+class PermitDataSourceTest {
+    private static final int PERMITS = 3;
+
+    private DataSource target;
+    private PermitDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        dataSource = new PermitDataSource(target, PERMITS, Duration.ofMillis(200));
+    }
+
+    @Test
+    @DisplayName("Should never hand out more connections at once than there are permits")
+    void getConnection_ShouldBoundConcurrentConnections() throws Exception {
+        dataSource = new PermitDataSource(target, PERMITS, Duration.ofSeconds(10));
+        AtomicInteger held = new AtomicInteger();
+        AtomicInteger maxHeld = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        Future<?>[] futures = new Future<?>[16];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < 20; j++) {
+                    try (Connection ignored = dataSource.getConnection()) {
+                        maxHeld.accumulateAndGet(held.incrementAndGet(), Math::max);
+                        Thread.sleep(1);
+                        held.decrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertTrue(maxHeld.get() <= PERMITS);
+        assertEquals(PERMITS, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    @DisplayName("Should fail with a transient error once the wait for a permit times out")
+    void getConnection_ShouldTimeOutWhenExhausted() throws Exception {
+        for (int i = 0; i < PERMITS; i++) {
+            dataSource.getConnection();
+        }
+
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+        verify(target, times(PERMITS)).getConnection();
+    }
+
+    @Test
+    @DisplayName("Should return the permit once per connection and when the pool fails")
+    void close_ShouldReleasePermitOnce() throws Exception {
+        Connection connection = dataSource.getConnection();
+        connection.close();
+        connection.close();
+        assertEquals(PERMITS, dataSource.getAvailablePermits());
+
+        when(target.getConnection()).thenThrow(new SQLException("pool closed"));
+        assertThrows(SQLException.class, () -> dataSource.getConnection());
+        assertEquals(PERMITS, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    @DisplayName("Should delegate calls and close to the pooled connection")
+    void connection_ShouldDelegate() throws Exception {
+        Connection pooled = mock(Connection.class);
+        when(target.getConnection()).thenReturn(pooled);
+        when(pooled.getAutoCommit()).thenReturn(false);
+
+        Connection connection = dataSource.getConnection();
+        assertFalse(connection.getAutoCommit());
+        assertSame(connection, connection.unwrap(Connection.class));
+        connection.close();
+
+        verify(pooled).close();
+    }
+}
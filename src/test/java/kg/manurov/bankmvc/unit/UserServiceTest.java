@@ -1,10 +1,13 @@
 package kg.manurov.bankmvc.unit;
 
+import kg.manurov.bankmvc.components.AccessTokenService;
+import kg.manurov.bankmvc.components.UserDetailsCache;
 import kg.manurov.bankmvc.dto.mappers.UserMapper;
 import kg.manurov.bankmvc.dto.users.SignUpRequest;
 import kg.manurov.bankmvc.dto.users.UserDto;
 import kg.manurov.bankmvc.entities.Role;
 import kg.manurov.bankmvc.entities.User;
+import kg.manurov.bankmvc.repositories.CardRepository;
 import kg.manurov.bankmvc.repositories.UserRepository;
 import kg.manurov.bankmvc.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
@@ -34,10 +37,18 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private CardRepository cardRepository;
 
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    @Mock
+    private AccessTokenService accessTokenService;
+
     @InjectMocks
     private UserService userService;
 
@@ -89,15 +100,16 @@ class UserServiceTest {
         List<User> users = List.of(testUser);
         Page<User> userPage = new PageImpl<>(users, pageable, users.size());
 
-        when(userRepository.findAll(pageable)).thenReturn(userPage);
-        when(userMapper.toDto(testUser)).thenReturn(testUserDto);
+        when(userRepository.findAllByRoleName("USER", pageable)).thenReturn(userPage);
+        when(cardRepository.summarizeByOwnerIds(List.of(1L))).thenReturn(List.of());
+        when(userMapper.toListDto(testUser, null)).thenReturn(testUserDto);
 
         Page<UserDto> result = userService.getAllUsers(pageable);
 
         assertNotNull(result);
         assertFalse(result.isEmpty());
         assertEquals(1, result.getTotalElements());
-        verify(userRepository, times(1)).findAll(pageable);
+        verify(userRepository, times(1)).findAllByRoleName("USER", pageable);
     }
 
     @Test
@@ -138,6 +150,8 @@ class UserServiceTest {
         assertEquals(!originalStatus, testUser.getEnabled());
         verify(userRepository, times(1)).findById(1L);
         verify(userRepository, times(1)).save(testUser);
+        verify(userDetailsCache).evict(testUser.getPhoneNumber());
+        verify(accessTokenService).revoke(testUser.getPhoneNumber());
     }
 
     @Test